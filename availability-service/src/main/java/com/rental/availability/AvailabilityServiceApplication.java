@@ -2,8 +2,10 @@ package com.rental.availability;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AvailabilityServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AvailabilityServiceApplication.class, args);
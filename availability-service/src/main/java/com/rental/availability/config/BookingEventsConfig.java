@@ -0,0 +1,24 @@
+package com.rental.availability.config;
+
+import com.rental.availability.kafka.BookingProjectionListener;
+import com.rental.common.kafka.TopicStartOffsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+/**
+ * The booking index loads from the projected bookings table, which holds every event the
+ * projection group has committed. Capturing those offsets before the load tells the index
+ * listener where to start.
+ */
+@Configuration
+public class BookingEventsConfig {
+    
+    @Bean
+    public TopicStartOffsets bookingEventsStart(ConsumerFactory<?, ?> consumerFactory,
+                                                @Value("${kafka.topics.partitions}") int partitions) {
+        return TopicStartOffsets.atCommitted("booking-events", BookingProjectionListener.GROUP_ID,
+                consumerFactory, partitions);
+    }
+}
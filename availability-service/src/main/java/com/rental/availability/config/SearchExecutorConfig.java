@@ -0,0 +1,16 @@
+package com.rental.availability.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class SearchExecutorConfig {
+    
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool searchPool(@Value("${search.parallelism}") int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+}
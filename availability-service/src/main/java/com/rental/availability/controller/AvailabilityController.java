@@ -1,14 +1,28 @@
 package com.rental.availability.controller;
 
+import com.rental.availability.dto.FleetCalendar;
+import com.rental.availability.dto.ImportResult;
+import com.rental.availability.dto.VehicleCalendar;
+import com.rental.availability.dto.VehiclePage;
+import com.rental.availability.dto.VehicleSearchCriteria;
 import com.rental.availability.entity.Vehicle;
 import com.rental.availability.service.AvailabilityService;
+import com.rental.availability.service.VehicleImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/availability")
@@ -18,6 +32,9 @@ public class AvailabilityController {
     @Autowired
     private AvailabilityService availabilityService;
     
+    @Autowired
+    private VehicleImportService importService;
+    
     @GetMapping("/vehicles")
     public ResponseEntity<List<Vehicle>> getAllVehicles() {
         List<Vehicle> vehicles = availabilityService.getAllVehicles();
@@ -33,6 +50,35 @@ public class AvailabilityController {
         return ResponseEntity.ok(vehicles);
     }
     
+    @GetMapping("/search/multi")
+    public ResponseEntity<List<Vehicle>> searchAcrossLocations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam List<String> locations) {
+        List<Vehicle> vehicles = availabilityService.searchAvailableVehicles(startDate, endDate, locations);
+        return ResponseEntity.ok(vehicles);
+    }
+    
+    @GetMapping("/search/page")
+    public ResponseEntity<?> searchVehiclesPage(VehicleSearchCriteria criteria) {
+        try {
+            VehiclePage page = availabilityService.searchVehicles(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    @GetMapping("/search/consistency")
+    public ResponseEntity<Map<String, Object>> verifySearchIndex(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String location) {
+        return ResponseEntity.ok(availabilityService.verifyIndexConsistency(startDate, endDate, location));
+    }
+    
     @GetMapping("/vehicles/{vehicleId}")
     public ResponseEntity<Vehicle> getVehicleDetails(@PathVariable Long vehicleId) {
         return availabilityService.getVehicleDetails(vehicleId)
@@ -40,12 +86,43 @@ public class AvailabilityController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/vehicles/{vehicleId}/calendar")
+    public ResponseEntity<VehicleCalendar> getVehicleCalendar(@PathVariable Long vehicleId,
+                                                              @RequestParam YearMonth month) {
+        return ResponseEntity.ok(availabilityService.getVehicleCalendar(vehicleId, month));
+    }
+    
+    @GetMapping("/calendar")
+    public ResponseEntity<?> getFleetCalendar(
+            @RequestParam YearMonth month,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) List<Long> vehicleIds) {
+        if (location == null && (vehicleIds == null || vehicleIds.isEmpty())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Either location or vehicleIds is required");
+            return ResponseEntity.badRequest().body(error);
+        }
+        FleetCalendar calendar = availabilityService.getFleetCalendar(month, location, vehicleIds);
+        return ResponseEntity.ok(calendar);
+    }
+    
     @PostMapping("/vehicles")
     public ResponseEntity<Vehicle> addVehicle(@RequestBody Vehicle vehicle) {
         Vehicle savedVehicle = availabilityService.addVehicle(vehicle);
         return ResponseEntity.ok(savedVehicle);
     }
     
+    @PostMapping(value = "/vehicles/import", consumes = {"application/x-ndjson", "application/jsonl", "text/csv"})
+    public ResponseEntity<ImportResult> importVehicles(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            ImportResult result = request.getContentType().startsWith("text/csv")
+                    ? importService.importCsv(reader)
+                    : importService.importJsonLines(reader);
+            return ResponseEntity.ok(result);
+        }
+    }
+    
     @PutMapping("/vehicles/{vehicleId}")
     public ResponseEntity<Vehicle> updateVehicle(@PathVariable Long vehicleId, @RequestBody Vehicle vehicle) {
         Vehicle updatedVehicle = availabilityService.updateVehicle(vehicleId, vehicle);
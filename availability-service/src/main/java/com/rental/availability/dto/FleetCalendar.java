@@ -0,0 +1,17 @@
+package com.rental.availability.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetCalendar {
+    private String month;
+    private List<VehicleCalendar> vehicles;
+    private List<Integer> fullyBookedDays;
+    private List<Integer> anyBookedDays;
+}
@@ -0,0 +1,17 @@
+package com.rental.availability.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleCalendar {
+    private Long vehicleId;
+    private String month;
+    private long occupancyMask;
+    private List<Integer> bookedDays;
+}
@@ -0,0 +1,16 @@
+package com.rental.availability.dto;
+
+import com.rental.availability.entity.Vehicle;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePage {
+    private List<Vehicle> items;
+    private String nextCursor;
+}
@@ -0,0 +1,30 @@
+package com.rental.availability.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class VehicleSearchCriteria {
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+    
+    private String location;
+    private String type;
+    private BigDecimal minRate;
+    private BigDecimal maxRate;
+    private Integer minSeats;
+    private String transmission;
+    private String fuelType;
+    
+    private VehicleSort sort = VehicleSort.PRICE;
+    private boolean descending;
+    private String cursor;
+    private int size = 50;
+}
@@ -0,0 +1,17 @@
+package com.rental.availability.dto;
+
+public enum VehicleSort {
+    PRICE("dailyRate"),
+    YEAR("year"),
+    ID("id");
+    
+    private final String property;
+    
+    VehicleSort(String property) {
+        this.property = property;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+}
@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_status_vehicle", columnList = "status, vehicle_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
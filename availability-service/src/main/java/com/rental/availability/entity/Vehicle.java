@@ -8,7 +8,12 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles", indexes = {
+        @Index(name = "idx_vehicles_location_rate", columnList = "location, daily_rate, id"),
+        @Index(name = "idx_vehicles_location_type_rate", columnList = "location, type, daily_rate, id"),
+        @Index(name = "idx_vehicles_location_year", columnList = "location, year, id"),
+        @Index(name = "idx_vehicles_type_rate", columnList = "type, daily_rate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
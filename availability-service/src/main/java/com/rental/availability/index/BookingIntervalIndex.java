@@ -0,0 +1,136 @@
+package com.rental.availability.index;
+
+import com.rental.availability.entity.Booking;
+import com.rental.availability.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-vehicle index of PENDING and CONFIRMED bookings.
+ * Loaded from the bookings table at startup and kept current from booking-events,
+ * so availability searches can answer overlap queries without a database round trip.
+ * The listener's start offsets are captured before the load, hence the dependency.
+ */
+@Component
+@DependsOn("bookingEventsStart")
+public class BookingIntervalIndex {
+    
+    public static final List<String> ACTIVE_STATUSES = List.of("PENDING", "CONFIRMED");
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+    
+    private final Map<Long, VehicleTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<Long, Long> bookingVehicles = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void load() {
+        timelines.clear();
+        bookingVehicles.clear();
+        for (Booking booking : bookingRepository.findByStatusIn(ACTIVE_STATUSES)) {
+            put(booking.getId(), booking.getVehicleId(), booking.getStartDate(), booking.getEndDate());
+        }
+        rebuildCalendar();
+        System.out.println("Booking interval index loaded: " + bookingVehicles.size() + " active bookings");
+    }
+    
+    // Moves the calendar horizon forward once a day
+    @Scheduled(cron = "${calendar.roll-cron}")
+    public void rollCalendar() {
+        rebuildCalendar();
+    }
+    
+    // Each bitmap is rebuilt inside the vehicle's compute, like put and remove update it, so a
+    // booking event arriving mid-roll can't be overwritten by a bitmap of the older timeline
+    private void rebuildCalendar() {
+        occupancyCalendar.roll();
+        for (Long vehicleId : timelines.keySet()) {
+            timelines.computeIfPresent(vehicleId, (id, timeline) -> {
+                occupancyCalendar.update(id, timeline);
+                return timeline;
+            });
+        }
+        for (Long vehicleId : List.copyOf(occupancyCalendar.vehicleIds())) {
+            timelines.compute(vehicleId, (id, timeline) -> {
+                if (timeline == null) {
+                    occupancyCalendar.update(id, null);
+                }
+                return timeline;
+            });
+        }
+    }
+    
+    public void put(Long bookingId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        Long previousVehicle = bookingVehicles.put(bookingId, vehicleId);
+        if (previousVehicle != null && !previousVehicle.equals(vehicleId)) {
+            removeFromTimeline(previousVehicle, bookingId);
+        }
+        timelines.compute(vehicleId, (id, timeline) -> {
+            VehicleTimeline updated = (timeline == null ? VehicleTimeline.EMPTY : timeline)
+                    .with(bookingId, startDate, endDate);
+            occupancyCalendar.update(id, updated);
+            return updated;
+        });
+    }
+    
+    public void remove(Long bookingId) {
+        Long vehicleId = bookingVehicles.remove(bookingId);
+        if (vehicleId != null) {
+            removeFromTimeline(vehicleId, bookingId);
+        }
+    }
+    
+    public Long getVehicleId(Long bookingId) {
+        return bookingVehicles.get(bookingId);
+    }
+    
+    /**
+     * Start and end date of an indexed booking, or null if it is not indexed.
+     */
+    public LocalDate[] getBookingRange(Long bookingId) {
+        Long vehicleId = bookingVehicles.get(bookingId);
+        return vehicleId == null ? null : getTimeline(vehicleId).rangeOf(bookingId);
+    }
+    
+    public boolean contains(Long bookingId) {
+        return bookingVehicles.containsKey(bookingId);
+    }
+    
+    public boolean isAvailable(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        // Inside the calendar horizon a few word masks answer it; the bitmap's own horizon is
+        // checked because bitmaps built before the last roll end a day earlier
+        OccupancyBitmap bitmap = occupancyCalendar.bitmap(vehicleId);
+        if (bitmap != null && bitmap.covers(startDate, endDate)) {
+            return bitmap.isFree(startDate, endDate);
+        }
+        VehicleTimeline timeline = timelines.get(vehicleId);
+        return timeline == null || !timeline.overlaps(startDate, endDate);
+    }
+    
+    public VehicleTimeline getTimeline(Long vehicleId) {
+        return timelines.getOrDefault(vehicleId, VehicleTimeline.EMPTY);
+    }
+    
+    public int size() {
+        return bookingVehicles.size();
+    }
+    
+    private void removeFromTimeline(Long vehicleId, Long bookingId) {
+        timelines.computeIfPresent(vehicleId, (id, timeline) -> {
+            VehicleTimeline updated = timeline.without(bookingId);
+            occupancyCalendar.update(id, updated);
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+}
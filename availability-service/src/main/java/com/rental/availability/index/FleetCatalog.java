@@ -0,0 +1,113 @@
+package com.rental.availability.index;
+
+import com.rental.availability.entity.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory vehicle catalog partitioned by normalized location.
+ * Partitions are immutable and replaced copy-on-write, so readers never lock;
+ * writers are serialized on the catalog monitor.
+ */
+@Component
+public class FleetCatalog {
+    
+    public static final class Partition {
+        
+        static final Partition EMPTY = new Partition(Collections.emptyMap());
+        
+        private final Map<Long, Vehicle> vehicles;
+        
+        private Partition(Map<Long, Vehicle> vehicles) {
+            this.vehicles = vehicles;
+        }
+        
+        public Collection<Vehicle> getVehicles() {
+            return vehicles.values();
+        }
+        
+        public Vehicle get(Long vehicleId) {
+            return vehicles.get(vehicleId);
+        }
+        
+        public int size() {
+            return vehicles.size();
+        }
+    }
+    
+    private volatile Map<String, Partition> partitions = Collections.emptyMap();
+    private final Map<Long, String> vehicleLocations = new HashMap<>();
+    
+    public static String normalize(String location) {
+        return location == null ? "" : location.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    public Partition partition(String location) {
+        return partitions.getOrDefault(normalize(location), Partition.EMPTY);
+    }
+    
+    public List<String> locations() {
+        return new ArrayList<>(partitions.keySet());
+    }
+    
+    public synchronized void load(Collection<Vehicle> vehicles) {
+        Map<String, Map<Long, Vehicle>> grouped = new HashMap<>();
+        vehicleLocations.clear();
+        for (Vehicle vehicle : vehicles) {
+            String key = normalize(vehicle.getLocation());
+            grouped.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(vehicle.getId(), vehicle);
+            vehicleLocations.put(vehicle.getId(), key);
+        }
+        Map<String, Partition> built = new HashMap<>();
+        grouped.forEach((key, members) -> built.put(key, new Partition(Collections.unmodifiableMap(members))));
+        partitions = Collections.unmodifiableMap(built);
+    }
+    
+    public synchronized void upsert(Vehicle vehicle) {
+        String key = normalize(vehicle.getLocation());
+        if (vehicle.equals(partition(key).get(vehicle.getId()))) {
+            return;
+        }
+        Map<String, Partition> nextPartitions = new HashMap<>(partitions);
+        String previous = vehicleLocations.put(vehicle.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            removeFrom(nextPartitions, previous, vehicle.getId());
+        }
+        Map<Long, Vehicle> members = new LinkedHashMap<>(nextPartitions.getOrDefault(key, Partition.EMPTY).vehicles);
+        members.put(vehicle.getId(), vehicle);
+        nextPartitions.put(key, new Partition(Collections.unmodifiableMap(members)));
+        partitions = Collections.unmodifiableMap(nextPartitions);
+    }
+    
+    public synchronized void remove(Long vehicleId) {
+        String previous = vehicleLocations.remove(vehicleId);
+        if (previous == null) {
+            return;
+        }
+        Map<String, Partition> nextPartitions = new HashMap<>(partitions);
+        removeFrom(nextPartitions, previous, vehicleId);
+        partitions = Collections.unmodifiableMap(nextPartitions);
+    }
+    
+    private static void removeFrom(Map<String, Partition> target, String key, Long vehicleId) {
+        Partition partition = target.get(key);
+        if (partition == null) {
+            return;
+        }
+        Map<Long, Vehicle> members = new LinkedHashMap<>(partition.vehicles);
+        members.remove(vehicleId);
+        if (members.isEmpty()) {
+            target.remove(key);
+        } else {
+            target.put(key, new Partition(Collections.unmodifiableMap(members)));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.rental.availability.index;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * One bit per day over a fixed horizon starting at {@code origin}; a set bit means the
+ * vehicle is booked on that day. Instances are immutable once built.
+ */
+public final class OccupancyBitmap {
+    
+    private final long origin;
+    private final int days;
+    private final long[] words;
+    
+    OccupancyBitmap(LocalDate origin, int days, VehicleTimeline timeline) {
+        this.origin = origin.toEpochDay();
+        this.days = days;
+        this.words = new long[(days + 63) >>> 6];
+        for (Map.Entry<LocalDate, LocalDate> range : timeline.getRanges().entrySet()) {
+            setRange(index(range.getKey()), index(range.getValue()));
+        }
+    }
+    
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return index(startDate) >= 0 && index(endDate) < days;
+    }
+    
+    public boolean isFree(LocalDate startDate, LocalDate endDate) {
+        int from = Math.max(0, index(startDate));
+        int to = Math.min(days - 1, index(endDate));
+        if (from > to) {
+            return true;
+        }
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            long mask = -1L;
+            if (w == fromWord) {
+                mask &= -1L << (from & 63);
+            }
+            if (w == toWord) {
+                mask &= -1L >>> (63 - (to & 63));
+            }
+            if ((words[w] & mask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns up to 64 consecutive days starting at {@code startDate} as a bit mask
+     * (bit 0 = startDate). Days outside the horizon read as free.
+     */
+    public long slice(LocalDate startDate, int length) {
+        int start = index(startDate);
+        if (start >= 0 && start + length <= days) {
+            int w = start >>> 6;
+            int offset = start & 63;
+            long bits = words[w] >>> offset;
+            if (offset != 0 && w + 1 < words.length) {
+                bits |= words[w + 1] << (64 - offset);
+            }
+            return length >= 64 ? bits : bits & ((1L << length) - 1);
+        }
+        
+        // Window straddles the horizon edge
+        long result = 0L;
+        for (int i = 0; i < length; i++) {
+            int bit = start + i;
+            if (bit >= 0 && bit < days && (words[bit >>> 6] & (1L << (bit & 63))) != 0) {
+                result |= 1L << i;
+            }
+        }
+        return result;
+    }
+    
+    public int cardinality() {
+        return Arrays.stream(words).mapToInt(Long::bitCount).sum();
+    }
+    
+    private void setRange(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(days - 1, to);
+        for (int bit = from; bit <= to; ) {
+            int w = bit >>> 6;
+            int last = Math.min(to, (w << 6) + 63);
+            long mask = (-1L << (bit & 63)) & (-1L >>> (63 - (last & 63)));
+            words[w] |= mask;
+            bit = last + 1;
+        }
+    }
+    
+    private int index(LocalDate date) {
+        long offset = date.toEpochDay() - origin;
+        if (offset < Integer.MIN_VALUE / 2) {
+            return Integer.MIN_VALUE / 2;
+        }
+        if (offset > Integer.MAX_VALUE / 2) {
+            return Integer.MAX_VALUE / 2;
+        }
+        return (int) offset;
+    }
+}
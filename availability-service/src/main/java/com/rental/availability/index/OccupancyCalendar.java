@@ -0,0 +1,90 @@
+package com.rental.availability.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Day-granularity occupancy bitmaps per vehicle over a rolling horizon,
+ * derived from {@link BookingIntervalIndex} timelines.
+ */
+@Component
+public class OccupancyCalendar {
+    
+    @Value("${calendar.past-days}")
+    private int pastDays;
+    
+    @Value("${calendar.horizon-days}")
+    private int horizonDays;
+    
+    private final Map<Long, OccupancyBitmap> bitmaps = new ConcurrentHashMap<>();
+    
+    private volatile LocalDate origin = LocalDate.now();
+    
+    /**
+     * Moves the horizon to start pastDays before today. Existing bitmaps keep their own
+     * origin until {@link BookingIntervalIndex} rebuilds them one vehicle at a time.
+     */
+    void roll() {
+        origin = LocalDate.now().minusDays(pastDays);
+    }
+    
+    Set<Long> vehicleIds() {
+        return bitmaps.keySet();
+    }
+    
+    void update(Long vehicleId, VehicleTimeline timeline) {
+        if (timeline == null || timeline.isEmpty()) {
+            bitmaps.remove(vehicleId);
+        } else {
+            bitmaps.put(vehicleId, new OccupancyBitmap(origin, horizonDays, timeline));
+        }
+    }
+    
+    // Null if the vehicle has no active bookings
+    OccupancyBitmap bitmap(Long vehicleId) {
+        return bitmaps.get(vehicleId);
+    }
+    
+    /**
+     * Occupancy of one month as a bit mask, bit 0 being the first day of the month.
+     */
+    public long monthMask(Long vehicleId, YearMonth month) {
+        OccupancyBitmap bitmap = bitmaps.get(vehicleId);
+        return bitmap == null ? 0L : bitmap.slice(month.atDay(1), month.lengthOfMonth());
+    }
+    
+    /**
+     * Days of the month on which every given vehicle is booked (word-level AND).
+     */
+    public long fullyBookedMask(Collection<Long> vehicleIds, YearMonth month) {
+        if (vehicleIds.isEmpty()) {
+            return 0L;
+        }
+        long mask = (1L << month.lengthOfMonth()) - 1;
+        for (Long vehicleId : vehicleIds) {
+            mask &= monthMask(vehicleId, month);
+            if (mask == 0L) {
+                break;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * Days of the month on which at least one of the given vehicles is booked (word-level OR).
+     */
+    public long anyBookedMask(Collection<Long> vehicleIds, YearMonth month) {
+        long mask = 0L;
+        for (Long vehicleId : vehicleIds) {
+            mask |= monthMask(vehicleId, month);
+        }
+        return mask;
+    }
+}
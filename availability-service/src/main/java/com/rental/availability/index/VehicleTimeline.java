@@ -0,0 +1,91 @@
+package com.rental.availability.index;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the active bookings of one vehicle.
+ * Bookings are kept by id and merged into sorted, non-overlapping
+ * occupied ranges (start -> end, both inclusive) so an overlap check is a
+ * single floor lookup.
+ */
+public final class VehicleTimeline {
+    
+    static final VehicleTimeline EMPTY = new VehicleTimeline(Collections.emptyMap());
+    
+    private final Map<Long, LocalDate[]> bookings;
+    private final NavigableMap<LocalDate, LocalDate> ranges;
+    
+    private VehicleTimeline(Map<Long, LocalDate[]> bookings) {
+        this.bookings = bookings;
+        this.ranges = merge(bookings);
+    }
+    
+    VehicleTimeline with(Long bookingId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, LocalDate[]> copy = new HashMap<>(bookings);
+        copy.put(bookingId, new LocalDate[]{startDate, endDate});
+        return new VehicleTimeline(copy);
+    }
+    
+    VehicleTimeline without(Long bookingId) {
+        if (!bookings.containsKey(bookingId)) {
+            return this;
+        }
+        Map<Long, LocalDate[]> copy = new HashMap<>(bookings);
+        copy.remove(bookingId);
+        return copy.isEmpty() ? EMPTY : new VehicleTimeline(copy);
+    }
+    
+    LocalDate[] rangeOf(Long bookingId) {
+        return bookings.get(bookingId);
+    }
+    
+    boolean isEmpty() {
+        return bookings.isEmpty();
+    }
+    
+    int size() {
+        return bookings.size();
+    }
+    
+    public boolean overlaps(LocalDate startDate, LocalDate endDate) {
+        Map.Entry<LocalDate, LocalDate> candidate = ranges.floorEntry(endDate);
+        return candidate != null && !candidate.getValue().isBefore(startDate);
+    }
+    
+    public NavigableMap<LocalDate, LocalDate> getRanges() {
+        return ranges;
+    }
+    
+    private static NavigableMap<LocalDate, LocalDate> merge(Map<Long, LocalDate[]> bookings) {
+        TreeMap<LocalDate, LocalDate> sorted = new TreeMap<>();
+        for (LocalDate[] range : bookings.values()) {
+            sorted.merge(range[0], range[1], (a, b) -> a.isAfter(b) ? a : b);
+        }
+        
+        TreeMap<LocalDate, LocalDate> merged = new TreeMap<>();
+        LocalDate currentStart = null;
+        LocalDate currentEnd = null;
+        for (Map.Entry<LocalDate, LocalDate> entry : sorted.entrySet()) {
+            if (currentEnd != null && !entry.getKey().isAfter(currentEnd.plusDays(1))) {
+                if (entry.getValue().isAfter(currentEnd)) {
+                    currentEnd = entry.getValue();
+                }
+            } else {
+                if (currentStart != null) {
+                    merged.put(currentStart, currentEnd);
+                }
+                currentStart = entry.getKey();
+                currentEnd = entry.getValue();
+            }
+        }
+        if (currentStart != null) {
+            merged.put(currentStart, currentEnd);
+        }
+        return Collections.unmodifiableNavigableMap(merged);
+    }
+}
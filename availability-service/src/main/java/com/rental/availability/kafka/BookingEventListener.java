@@ -1,16 +1,24 @@
 package com.rental.availability.kafka;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rental.availability.entity.Booking;
+import com.rental.availability.index.BookingIntervalIndex;
+import com.rental.availability.entity.Vehicle;
 import com.rental.availability.repository.BookingRepository;
+import com.rental.availability.service.SearchResultCache;
 import com.rental.availability.service.VehicleCacheService;
+import com.rental.common.kafka.TopicStartOffsets;
+import com.rental.events.BookingEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 @Service
-public class BookingEventListener {
+public class BookingEventListener implements ConsumerSeekAware {
     
     @Autowired
     private BookingRepository bookingRepository;
@@ -19,23 +27,75 @@ public class BookingEventListener {
     private VehicleCacheService cacheService;
     
     @Autowired
-    private ObjectMapper objectMapper;
+    private BookingIntervalIndex bookingIndex;
+    
+    @Autowired
+    private SearchResultCache searchCache;
+    
+    @Autowired
+    private TopicStartOffsets bookingEventsStart;
     
-    @KafkaListener(topics = "booking-events", groupId = "availability-service")
-    public void handleBookingEvent(String message) {
+    // Every instance keeps its own index and caches, so each one reads every partition itself,
+    // starting where the index load left off
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "booking-events",
+            partitions = "#{@bookingEventsStart.partitions()}"))
+    public void handleBookingEvent(BookingEvent event) {
         try {
-            JsonNode event = objectMapper.readTree(message);
-            String eventType = event.get("event").asText();
+            Long bookingId = event.bookingId();
             
-            switch (eventType) {
-                case "booking_created":
-                case "booking_confirmed":
-                case "booking_cancelled":
-                    cacheService.refreshCache();
+            switch (event.type()) {
+                case BOOKING_CREATED:
+                case BOOKING_CONFIRMED:
+                    indexBooking(bookingId, event);
+                    bookingChanged(bookingId);
+                    break;
+                case BOOKING_CANCELLED:
+                    bookingChanged(bookingId);
+                    bookingIndex.remove(bookingId);
+                    break;
+                default:
                     break;
             }
         } catch (Exception e) {
             System.err.println("Failed to process booking event: " + e.getMessage());
         }
     }
+    
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments,
+                                     ConsumerSeekCallback callback) {
+        bookingEventsStart.seek(assignments.keySet(), callback);
+    }
+    
+    private void bookingChanged(Long bookingId) {
+        Long vehicleId = bookingIndex.getVehicleId(bookingId);
+        LocalDate[] range = bookingIndex.getBookingRange(bookingId);
+        if (vehicleId == null || range == null) {
+            return;
+        }
+        cacheService.scheduleRefresh(vehicleId);
+        cacheService.getVehicle(vehicleId)
+                .map(Vehicle::getLocation)
+                .ifPresentOrElse(
+                        location -> searchCache.evictOverlapping(location, range[0], range[1]),
+                        searchCache::evictAll);
+    }
+    
+    private void indexBooking(Long bookingId, BookingEvent event) {
+        if (event.vehicleId() != null && event.startDate() != null && event.endDate() != null) {
+            bookingIndex.put(bookingId, event.vehicleId(), event.startDate(), event.endDate());
+            return;
+        }
+        
+        // Events without dates; fall back to the local bookings table
+        if (!bookingIndex.contains(bookingId)) {
+            bookingRepository.findById(bookingId)
+                    .filter(b -> BookingIntervalIndex.ACTIVE_STATUSES.contains(b.getStatus()))
+                    .ifPresent(this::indexBooking);
+        }
+    }
+    
+    private void indexBooking(Booking booking) {
+        bookingIndex.put(booking.getId(), booking.getVehicleId(), booking.getStartDate(), booking.getEndDate());
+    }
 }
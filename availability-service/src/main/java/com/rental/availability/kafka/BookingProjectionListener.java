@@ -0,0 +1,36 @@
+package com.rental.availability.kafka;
+
+import com.rental.availability.entity.Booking;
+import com.rental.availability.service.BookingProjectionService;
+import com.rental.events.BookingEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class BookingProjectionListener {
+    
+    public static final String GROUP_ID = "availability-service-projection";
+    
+    @Autowired
+    private BookingProjectionService projectionService;
+    
+    // Shared group: each event is projected by exactly one instance
+    @KafkaListener(topics = "booking-events", groupId = GROUP_ID, batch = "true",
+                   properties = {"auto.offset.reset=earliest", "max.poll.records=${booking.projection.max-poll-records}"})
+    public void handleBookingEvents(List<BookingEvent> events) {
+        List<Booking> bookings = new ArrayList<>(events.size());
+        for (BookingEvent event : events) {
+            // Records the deserializer could not read arrive as null
+            if (event == null || event.status() == null || event.startDate() == null) {
+                continue;
+            }
+            bookings.add(new Booking(event.bookingId(), event.vehicleId(),
+                    event.startDate(), event.endDate(), event.status()));
+        }
+        projectionService.upsertAll(bookings);
+    }
+}
@@ -2,6 +2,7 @@ package com.rental.availability.repository;
 
 import com.rental.availability.entity.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,7 +11,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
     
     @Query("SELECT v FROM Vehicle v WHERE v.location = :location " +
            "AND v.id NOT IN (" +
@@ -22,4 +23,17 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("location") String location);
+    
+    // Same partition as FleetCatalog.normalize: trimmed, whitespace collapsed, lower case
+    @Query(value = "SELECT v.id FROM vehicles v " +
+           "WHERE lower(regexp_replace(trim(v.location), '\\s+', ' ', 'g')) = :location " +
+           "AND NOT EXISTS (" +
+           "  SELECT 1 FROM bookings b WHERE b.vehicle_id = v.id " +
+           "  AND b.status IN ('PENDING', 'CONFIRMED') " +
+           "  AND b.start_date <= :endDate AND b.end_date >= :startDate" +
+           ")", nativeQuery = true)
+    List<Long> findAvailableVehicleIdsInPartition(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("location") String normalizedLocation);
 }
@@ -0,0 +1,63 @@
+package com.rental.availability.repository;
+
+import com.rental.availability.dto.VehicleSearchCriteria;
+import com.rental.availability.dto.VehicleSort;
+import com.rental.availability.entity.Vehicle;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class VehicleSpecifications {
+    
+    private VehicleSpecifications() {
+    }
+    
+    public static Specification<Vehicle> matching(VehicleSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getLocation() != null) {
+                predicates.add(cb.equal(root.get("location"), criteria.getLocation()));
+            }
+            if (criteria.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), criteria.getType()));
+            }
+            if (criteria.getMinRate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dailyRate"), criteria.getMinRate()));
+            }
+            if (criteria.getMaxRate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dailyRate"), criteria.getMaxRate()));
+            }
+            if (criteria.getMinSeats() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("seats"), criteria.getMinSeats()));
+            }
+            if (criteria.getTransmission() != null) {
+                predicates.add(cb.equal(root.get("transmission"), criteria.getTransmission()));
+            }
+            if (criteria.getFuelType() != null) {
+                predicates.add(cb.equal(root.get("fuelType"), criteria.getFuelType()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    /**
+     * Rows strictly after (sortValue, id) in the requested order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Vehicle> after(VehicleSort sort, boolean descending, Comparable sortValue, Long id) {
+        return (root, query, cb) -> {
+            Path<Comparable> field = root.get(sort.getProperty());
+            Path<Long> idPath = root.get("id");
+            if (sort == VehicleSort.ID) {
+                return descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            }
+            Predicate beyond = descending ? cb.lessThan(field, sortValue) : cb.greaterThan(field, sortValue);
+            Predicate tieBreak = cb.and(cb.equal(field, sortValue),
+                    descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id));
+            return cb.or(beyond, tieBreak);
+        };
+    }
+}
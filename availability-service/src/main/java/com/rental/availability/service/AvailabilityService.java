@@ -1,14 +1,34 @@
 package com.rental.availability.service;
 
+import com.rental.availability.dto.FleetCalendar;
+import com.rental.availability.dto.VehicleCalendar;
+import com.rental.availability.dto.VehiclePage;
+import com.rental.availability.dto.VehicleSearchCriteria;
 import com.rental.availability.entity.Vehicle;
+import com.rental.availability.index.BookingIntervalIndex;
+import com.rental.availability.index.FleetCatalog;
+import com.rental.availability.index.OccupancyCalendar;
 import com.rental.availability.repository.VehicleRepository;
+import com.rental.availability.repository.VehicleSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,49 +40,281 @@ public class AvailabilityService {
     @Autowired
     private VehicleCacheService cacheService;
     
+    @Autowired
+    private BookingIntervalIndex bookingIndex;
+    
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+    
+    @Autowired
+    private SearchResultCache searchCache;
+    
+    @Autowired
+    private FleetCatalog fleetCatalog;
+    
+    @Autowired
+    private ForkJoinPool searchPool;
+    
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
     
+    @Value("${search.max-page-size}")
+    private int maxPageSize;
+    
+    @Value("${search.max-scanned-rows}")
+    private int maxScannedRows;
+    
+    @Value("${search.lock-mget-batch-size}")
+    private int lockMgetBatchSize;
+    
     public List<Vehicle> getAllVehicles() {
         return cacheService.getCachedVehicles();
     }
     
     public List<Vehicle> searchAvailableVehicles(LocalDate startDate, LocalDate endDate, String location) {
-        List<Vehicle> vehicles = vehicleRepository.findAvailableVehicles(startDate, endDate, location);
+        return withoutLocked(availableInPartition(startDate, endDate, location), startDate, endDate);
+    }
+    
+    /**
+     * Searches several locations at once; each location's partition is evaluated
+     * in parallel on the search pool and the results are merged in request order.
+     */
+    public List<Vehicle> searchAvailableVehicles(LocalDate startDate, LocalDate endDate, List<String> locations) {
+        List<CompletableFuture<List<Vehicle>>> futures = locations.stream()
+                .map(FleetCatalog::normalize)
+                .distinct()
+                .map(location -> CompletableFuture.supplyAsync(
+                        () -> availableInPartition(startDate, endDate, location), searchPool))
+                .collect(Collectors.toList());
+        
+        List<Vehicle> merged = new ArrayList<>();
+        for (CompletableFuture<List<Vehicle>> future : futures) {
+            merged.addAll(future.join());
+        }
+        return withoutLocked(merged, startDate, endDate);
+    }
+    
+    private List<Vehicle> availableInPartition(LocalDate startDate, LocalDate endDate, String location) {
+        FleetCatalog.Partition partition = fleetCatalog.partition(location);
+        SearchResultCache.SearchKey key = new SearchResultCache.SearchKey(location, startDate, endDate);
+        List<Long> ids = searchCache.get(key, () -> partition.getVehicles().stream()
+                .map(Vehicle::getId)
+                .filter(id -> bookingIndex.isAvailable(id, startDate, endDate))
+                .collect(Collectors.toList()));
         
-        return vehicles.stream()
-                .filter(v -> !isLockedInRedis(v.getId()))
+        List<Vehicle> vehicles = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Vehicle vehicle = partition.get(id);
+            if (vehicle != null) {
+                vehicles.add(vehicle);
+            }
+        }
+        return vehicles;
+    }
+    
+    // Locks are short-lived, so they are checked on every request rather than cached
+    private List<Vehicle> withoutLocked(List<Vehicle> candidates, LocalDate startDate, LocalDate endDate) {
+        Set<Long> locked = findLockedInRedis(candidates, startDate, endDate);
+        if (locked.isEmpty()) {
+            return candidates;
+        }
+        return candidates.stream()
+                .filter(v -> !locked.contains(v.getId()))
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Filtered, keyset-paginated listing. When a date range is given, vehicles booked or
+     * locked over that range are skipped and further rows are read until the page is full,
+     * in growing batches and at most max-scanned-rows per request. If that budget runs out
+     * first, the page comes back short (possibly empty) with a cursor to carry on from.
+     */
+    public VehiclePage searchVehicles(VehicleSearchCriteria criteria) {
+        int size = Math.max(1, Math.min(criteria.getSize(), maxPageSize));
+        boolean dated = criteria.getStartDate() != null && criteria.getEndDate() != null;
+        Sort.Direction direction = criteria.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, criteria.getSort().getProperty()).and(Sort.by(direction, "id"));
+        
+        VehicleCursor cursor = VehicleCursor.decode(criteria.getCursor(), criteria.getSort());
+        List<Vehicle> page = new ArrayList<>(size + 1);
+        int scanned = 0;
+        int limit = size + 1;
+        while (page.size() <= size) {
+            if (scanned >= maxScannedRows) {
+                // Out of budget with more rows left: resume after the last row read
+                return new VehiclePage(page, cursor.encode(criteria.getSort()));
+            }
+            Specification<Vehicle> spec = VehicleSpecifications.matching(criteria);
+            if (cursor != null) {
+                spec = spec.and(VehicleSpecifications.after(
+                        criteria.getSort(), criteria.isDescending(), cursor.sortValue, cursor.id));
+            }
+            int batchLimit = Math.max(1, Math.min(limit, maxScannedRows - scanned));
+            List<Vehicle> batch = vehicleRepository.findBy(spec, q -> q.sortBy(order).limit(batchLimit).all());
+            scanned += batch.size();
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            List<Vehicle> accepted = batch;
+            if (dated) {
+                accepted = batch.stream()
+                        .filter(v -> bookingIndex.isAvailable(v.getId(), criteria.getStartDate(), criteria.getEndDate()))
+                        .collect(Collectors.toList());
+                Set<Long> locked = findLockedInRedis(accepted, criteria.getStartDate(), criteria.getEndDate());
+                accepted.removeIf(v -> locked.contains(v.getId()));
+            }
+            for (Vehicle vehicle : accepted) {
+                if (page.size() > size) {
+                    break;
+                }
+                page.add(vehicle);
+            }
+            
+            if (batch.size() < batchLimit) {
+                break;
+            }
+            cursor = VehicleCursor.of(criteria.getSort(), batch.get(batch.size() - 1));
+            // Mostly-booked ranges need many rows per page, so read more each round
+            limit = Math.min(limit * 2, maxPageSize * 4);
+        }
+        
+        String nextCursor = null;
+        if (page.size() > size) {
+            page = page.subList(0, size);
+            nextCursor = VehicleCursor.of(criteria.getSort(), page.get(size - 1)).encode(criteria.getSort());
+        }
+        return new VehiclePage(page, nextCursor);
+    }
+    
+    /**
+     * Compares the in-memory booking index against the SQL availability query
+     * for the given search and reports any vehicle ids on which they disagree.
+     * Both sides use the normalized location partition the searches use.
+     */
+    public Map<String, Object> verifyIndexConsistency(LocalDate startDate, LocalDate endDate, String location) {
+        String partition = FleetCatalog.normalize(location);
+        Set<Long> fromIndex = fleetCatalog.partition(partition).getVehicles().stream()
+                .map(Vehicle::getId)
+                .filter(id -> bookingIndex.isAvailable(id, startDate, endDate))
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<Long> fromDatabase = new TreeSet<>(
+                vehicleRepository.findAvailableVehicleIdsInPartition(startDate, endDate, partition));
+        
+        Set<Long> onlyInIndex = new TreeSet<>(fromIndex);
+        onlyInIndex.removeAll(fromDatabase);
+        Set<Long> onlyInDatabase = new TreeSet<>(fromDatabase);
+        onlyInDatabase.removeAll(fromIndex);
+        
+        Map<String, Object> report = new HashMap<>();
+        report.put("consistent", onlyInIndex.isEmpty() && onlyInDatabase.isEmpty());
+        report.put("indexedBookings", bookingIndex.size());
+        report.put("availableInIndex", fromIndex.size());
+        report.put("availableInDatabase", fromDatabase.size());
+        report.put("onlyInIndex", onlyInIndex);
+        report.put("onlyInDatabase", onlyInDatabase);
+        return report;
+    }
+    
     public Optional<Vehicle> getVehicleDetails(Long vehicleId) {
-        return vehicleRepository.findById(vehicleId);
+        return cacheService.getVehicle(vehicleId);
+    }
+    
+    public VehicleCalendar getVehicleCalendar(Long vehicleId, YearMonth month) {
+        long mask = occupancyCalendar.monthMask(vehicleId, month);
+        return new VehicleCalendar(vehicleId, month.toString(), mask, toDays(mask));
     }
     
-    private boolean isLockedInRedis(Long vehicleId) {
-        String key = "vehicle:lock:" + vehicleId;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    public FleetCalendar getFleetCalendar(YearMonth month, String location, List<Long> vehicleIds) {
+        List<Long> ids = vehicleIds != null && !vehicleIds.isEmpty()
+                ? vehicleIds
+                : fleetCatalog.partition(location).getVehicles().stream().map(Vehicle::getId).collect(Collectors.toList());
+        
+        List<VehicleCalendar> calendars = ids.stream()
+                .map(id -> getVehicleCalendar(id, month))
+                .collect(Collectors.toList());
+        return new FleetCalendar(month.toString(), calendars,
+                toDays(occupancyCalendar.fullyBookedMask(ids, month)),
+                toDays(occupancyCalendar.anyBookedMask(ids, month)));
+    }
+    
+    private List<Integer> toDays(long mask) {
+        List<Integer> days = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0L) {
+            days.add(Long.numberOfTrailingZeros(mask) + 1);
+            mask &= mask - 1;
+        }
+        return days;
+    }
+    
+    /**
+     * Vehicles with an in-flight reservation on any day of the range. booking-service locks
+     * one key per (vehicle, day); the candidate keys are read with MGETs of at most
+     * lock-mget-batch-size keys each, split on vehicle boundaries, so a long range over
+     * many vehicles doesn't turn into a single huge command.
+     */
+    private Set<Long> findLockedInRedis(List<Vehicle> vehicles, LocalDate startDate, LocalDate endDate) {
+        if (vehicles.isEmpty()) {
+            return Set.of();
+        }
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
+        if (days <= 0) {
+            return Set.of();
+        }
+        int vehiclesPerBatch = Math.max(1, lockMgetBatchSize / days);
+        
+        Set<Long> locked = new HashSet<>();
+        for (int from = 0; from < vehicles.size(); from += vehiclesPerBatch) {
+            List<Vehicle> chunk = vehicles.subList(from, Math.min(from + vehiclesPerBatch, vehicles.size()));
+            List<String> keys = new ArrayList<>(chunk.size() * days);
+            for (Vehicle vehicle : chunk) {
+                for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                    keys.add(reservationLockKey(vehicle.getId(), day));
+                }
+            }
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    locked.add(chunk.get(i / days).getId());
+                }
+            }
+        }
+        return locked;
+    }
+    
+    // Must match ReservationLockService.dayKey in booking-service
+    private static String reservationLockKey(Long vehicleId, LocalDate day) {
+        return "reservation:lock:{" + vehicleId + "}:" + day;
     }
     
     public Vehicle addVehicle(Vehicle vehicle) {
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
-        cacheService.refreshCache();
+        cacheService.putVehicle(savedVehicle);
+        cacheService.invalidateSearches(savedVehicle.getLocation());
         return savedVehicle;
     }
     
     public Vehicle updateVehicle(Long vehicleId, Vehicle vehicle) {
         Optional<Vehicle> existingVehicle = vehicleRepository.findById(vehicleId);
         if (existingVehicle.isPresent()) {
+            String previousLocation = existingVehicle.get().getLocation();
             vehicle.setId(vehicleId);
             Vehicle updatedVehicle = vehicleRepository.save(vehicle);
-            cacheService.refreshCache();
+            cacheService.putVehicle(updatedVehicle);
+            cacheService.invalidateSearches(previousLocation);
+            cacheService.invalidateSearches(updatedVehicle.getLocation());
             return updatedVehicle;
         }
         throw new RuntimeException("Vehicle not found with id: " + vehicleId);
     }
     
     public void deleteVehicle(Long vehicleId) {
+        Optional<Vehicle> existingVehicle = vehicleRepository.findById(vehicleId);
         vehicleRepository.deleteById(vehicleId);
-        cacheService.refreshCache();
+        cacheService.evictVehicle(vehicleId);
+        existingVehicle.ifPresent(v -> cacheService.invalidateSearches(v.getLocation()));
     }
 }
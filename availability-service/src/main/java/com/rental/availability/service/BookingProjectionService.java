@@ -0,0 +1,66 @@
+package com.rental.availability.service;
+
+import com.rental.availability.entity.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains availability-service's own copy of the bookings table from booking-events.
+ * Upserts are idempotent: redelivered events rewrite the same row, and a status never
+ * moves backwards (PENDING -> CONFIRMED -> CANCELLED), so late duplicates are ignored.
+ */
+@Service
+public class BookingProjectionService {
+    
+    private static final String STATUS_RANK = "CASE %s WHEN 'CANCELLED' THEN 2 WHEN 'CONFIRMED' THEN 1 ELSE 0 END";
+    
+    private static final String UPSERT_SQL = "INSERT INTO bookings (id, vehicle_id, start_date, end_date, status) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET vehicle_id = EXCLUDED.vehicle_id, start_date = EXCLUDED.start_date, " +
+            "end_date = EXCLUDED.end_date, status = EXCLUDED.status " +
+            "WHERE " + String.format(STATUS_RANK, "EXCLUDED.status") + " >= " + String.format(STATUS_RANK, "bookings.status");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Transactional
+    public void upsertAll(Collection<Booking> bookings) {
+        List<Booking> latest = new ArrayList<>(collapse(bookings).values());
+        if (latest.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, latest, latest.size(), (ps, b) -> {
+            ps.setLong(1, b.getId());
+            ps.setLong(2, b.getVehicleId());
+            ps.setDate(3, Date.valueOf(b.getStartDate()));
+            ps.setDate(4, Date.valueOf(b.getEndDate()));
+            ps.setString(5, b.getStatus());
+        });
+    }
+    
+    // Keeps one row per booking id within a batch, preferring the most advanced status
+    private static Map<Long, Booking> collapse(Collection<Booking> bookings) {
+        Map<Long, Booking> latest = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            latest.merge(booking.getId(), booking, (a, b) -> rank(b.getStatus()) >= rank(a.getStatus()) ? b : a);
+        }
+        return latest;
+    }
+    
+    private static int rank(String status) {
+        return switch (status) {
+            case "CANCELLED" -> 2;
+            case "CONFIRMED" -> 1;
+            default -> 0;
+        };
+    }
+}
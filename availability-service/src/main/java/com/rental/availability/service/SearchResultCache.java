@@ -0,0 +1,89 @@
+package com.rental.availability.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rental.availability.index.FleetCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the vehicle ids matching an availability search, keyed by
+ * (normalized location, startDate, endDate). A booking change for a vehicle evicts only
+ * the searches for that vehicle's location whose date range overlaps the booking.
+ */
+@Component
+public class SearchResultCache {
+    
+    public record SearchKey(String location, LocalDate startDate, LocalDate endDate) {
+        public SearchKey {
+            location = FleetCatalog.normalize(location);
+        }
+        
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return !startDate.isAfter(to) && !endDate.isBefore(from);
+        }
+    }
+    
+    private final Cache<SearchKey, List<Long>> results;
+    private final Map<String, Set<SearchKey>> keysByLocation = new ConcurrentHashMap<>();
+    
+    public SearchResultCache(@Value("${search.cache.max-size}") long maxSize,
+                             @Value("${search.cache.ttl-seconds}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener((SearchKey key, List<Long> ids, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        Set<SearchKey> keys = keysByLocation.get(key.location());
+                        if (keys != null) {
+                            keys.remove(key);
+                        }
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "availability.search.results");
+    }
+    
+    public List<Long> get(SearchKey key, Supplier<List<Long>> loader) {
+        return results.get(key, k -> {
+            keysByLocation.computeIfAbsent(k.location(), l -> ConcurrentHashMap.newKeySet()).add(k);
+            return List.copyOf(loader.get());
+        });
+    }
+    
+    public void evictOverlapping(String location, LocalDate startDate, LocalDate endDate) {
+        Set<SearchKey> keys = keysByLocation.get(FleetCatalog.normalize(location));
+        if (keys == null) {
+            return;
+        }
+        for (SearchKey key : keys) {
+            if (key.overlaps(startDate, endDate)) {
+                results.invalidate(key);
+            }
+        }
+    }
+    
+    public void evictLocation(String location) {
+        Set<SearchKey> keys = keysByLocation.get(FleetCatalog.normalize(location));
+        if (keys != null) {
+            results.invalidateAll(List.copyOf(keys));
+        }
+    }
+    
+    public void evictAll() {
+        results.invalidateAll();
+    }
+}
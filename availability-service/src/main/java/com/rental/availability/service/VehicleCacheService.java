@@ -3,16 +3,34 @@ package com.rental.availability.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rental.availability.entity.Vehicle;
+import com.rental.availability.index.FleetCatalog;
 import com.rental.availability.repository.VehicleRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps the vehicle catalog in the Redis hash {@code vehicles:catalog}, one field per vehicle id.
+ * Writes touch only the affected field; event-driven refreshes are coalesced into one
+ * batch per debounce window, and a periodic full reconciliation repairs any drift.
+ * Reads are served from {@link VehicleLocalCache} and {@link FleetCatalog}; every change is
+ * broadcast on {@link #INVALIDATION_CHANNEL} so other instances refresh their in-process copies.
+ */
 @Service
 public class VehicleCacheService {
     
@@ -25,38 +43,219 @@ public class VehicleCacheService {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private VehicleLocalCache localCache;
+    
+    @Autowired
+    private SearchResultCache searchCache;
+    
+    @Autowired
+    private FleetCatalog fleetCatalog;
+    
     @Value("${redis.cache.ttl}")
     private long cacheTtl;
     
-    private static final String CACHE_KEY = "vehicles:all";
+    private static final String CACHE_KEY = "vehicles:catalog";
+    
+    public static final String INVALIDATION_CHANNEL = "vehicles:invalidate";
+    public static final String INVALIDATE_ALL = "*";
+    public static final String LOCATION_PREFIX = "location:";
+    
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+    
+    private final Set<Long> dirtyVehicles = ConcurrentHashMap.newKeySet();
     
     @PostConstruct
     public void initCache() {
         refreshCache();
     }
     
+    /**
+     * Full rebuild of the catalog hash. Only used at startup, on a cache miss
+     * and by the periodic reconciliation.
+     */
     public void refreshCache() {
+        writeCatalog();
+        localCache.invalidateAll();
+        publish(INVALIDATE_ALL);
+    }
+    
+    private void writeCatalog() {
+        List<Vehicle> vehicles = vehicleRepository.findAll();
+        Map<String, String> entries = new HashMap<>();
+        for (Vehicle vehicle : vehicles) {
+            entries.put(String.valueOf(vehicle.getId()), serialize(vehicle));
+        }
+        
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Set<String> stale = new HashSet<>(hash.keys(CACHE_KEY));
+        stale.removeAll(entries.keySet());
+        if (!stale.isEmpty()) {
+            hash.delete(CACHE_KEY, stale.toArray());
+        }
+        if (!entries.isEmpty()) {
+            hash.putAll(CACHE_KEY, entries);
+        }
+        redisTemplate.expire(CACHE_KEY, cacheTtl, TimeUnit.SECONDS);
+        fleetCatalog.load(vehicles);
+    }
+    
+    public void putVehicle(Vehicle vehicle) {
+        redisTemplate.<String, String>opsForHash().put(CACHE_KEY, String.valueOf(vehicle.getId()), serialize(vehicle));
+        localCache.invalidate(vehicle.getId());
+        fleetCatalog.upsert(vehicle);
+        publish(String.valueOf(vehicle.getId()));
+    }
+    
+    public void evictVehicle(Long vehicleId) {
+        redisTemplate.<String, String>opsForHash().delete(CACHE_KEY, String.valueOf(vehicleId));
+        localCache.invalidate(vehicleId);
+        fleetCatalog.remove(vehicleId);
+        publish(String.valueOf(vehicleId));
+    }
+    
+    /**
+     * Marks a vehicle for refresh; repeated calls within one debounce window collapse
+     * into a single batched reload.
+     */
+    public void scheduleRefresh(Long vehicleId) {
+        if (vehicleId != null) {
+            dirtyVehicles.add(vehicleId);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${redis.cache.debounce-ms}")
+    public void flushDirtyVehicles() {
+        if (dirtyVehicles.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(dirtyVehicles);
+        dirtyVehicles.removeAll(batch);
+        
+        Map<String, String> entries = new HashMap<>();
+        List<Vehicle> vehicles = vehicleRepository.findAllById(batch);
+        for (Vehicle vehicle : vehicles) {
+            entries.put(String.valueOf(vehicle.getId()), serialize(vehicle));
+        }
+        
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        if (!entries.isEmpty()) {
+            hash.putAll(CACHE_KEY, entries);
+        }
+        Object[] removed = batch.stream()
+                .map(String::valueOf)
+                .filter(id -> !entries.containsKey(id))
+                .toArray();
+        if (removed.length > 0) {
+            hash.delete(CACHE_KEY, removed);
+        }
+        
+        vehicles.forEach(fleetCatalog::upsert);
+        for (Long id : batch) {
+            localCache.invalidate(id);
+            if (!entries.containsKey(String.valueOf(id))) {
+                fleetCatalog.remove(id);
+            }
+            publish(String.valueOf(id));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${redis.cache.reconcile-interval-ms}",
+               initialDelayString = "${redis.cache.reconcile-interval-ms}")
+    public void reconcile() {
         try {
-            List<Vehicle> vehicles = vehicleRepository.findAll();
-            String json = objectMapper.writeValueAsString(vehicles);
-            redisTemplate.opsForValue().set(CACHE_KEY, json, cacheTtl, TimeUnit.SECONDS);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to cache vehicles", e);
+            refreshCache();
+        } catch (Exception e) {
+            System.err.println("Vehicle cache reconciliation failed: " + e.getMessage());
         }
     }
     
     public List<Vehicle> getCachedVehicles() {
-        String json = redisTemplate.opsForValue().get(CACHE_KEY);
-        if (json == null) {
-            refreshCache();
-            json = redisTemplate.opsForValue().get(CACHE_KEY);
+        return localCache.getCatalog(this::loadCatalog);
+    }
+    
+    public Optional<Vehicle> getVehicle(Long vehicleId) {
+        return localCache.getVehicle(vehicleId, () -> loadVehicle(vehicleId));
+    }
+    
+    private List<Vehicle> loadCatalog() {
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        List<String> values = hash.values(CACHE_KEY);
+        if (values == null || values.isEmpty()) {
+            writeCatalog();
+            values = hash.values(CACHE_KEY);
         }
         
         try {
-            return objectMapper.readValue(json, 
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, Vehicle.class));
+            List<Vehicle> vehicles = new ArrayList<>(values.size());
+            for (String json : values) {
+                vehicles.add(objectMapper.readValue(json, Vehicle.class));
+            }
+            return vehicles;
         } catch (JsonProcessingException e) {
             return vehicleRepository.findAll();
         }
     }
+    
+    private Optional<Vehicle> loadVehicle(Long vehicleId) {
+        String json = redisTemplate.<String, String>opsForHash().get(CACHE_KEY, String.valueOf(vehicleId));
+        if (json != null) {
+            try {
+                return Optional.of(objectMapper.readValue(json, Vehicle.class));
+            } catch (JsonProcessingException e) {
+                System.err.println("Discarding unreadable cache entry for vehicle " + vehicleId);
+            }
+        }
+        return vehicleRepository.findById(vehicleId);
+    }
+    
+    /**
+     * Drops cached search results for a location on every instance, used when
+     * vehicles are added, moved or removed there.
+     */
+    public void invalidateSearches(String location) {
+        if (location != null) {
+            searchCache.evictLocation(location);
+            publish(LOCATION_PREFIX + location);
+        }
+    }
+    
+    /**
+     * Applies an invalidation broadcast by another instance. Messages are
+     * {@code <instanceId>|<target>}; our own messages are ignored since the
+     * change was already applied locally.
+     */
+    public void applyInvalidation(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || INSTANCE_ID.equals(message.substring(0, separator))) {
+            return;
+        }
+        String target = message.substring(separator + 1);
+        if (INVALIDATE_ALL.equals(target)) {
+            localCache.invalidateAll();
+            fleetCatalog.load(loadCatalog());
+        } else if (target.startsWith(LOCATION_PREFIX)) {
+            searchCache.evictLocation(target.substring(LOCATION_PREFIX.length()));
+        } else {
+            Long vehicleId = Long.valueOf(target);
+            localCache.invalidate(vehicleId);
+            loadVehicle(vehicleId).ifPresentOrElse(fleetCatalog::upsert, () -> fleetCatalog.remove(vehicleId));
+        }
+    }
+    
+    private void publish(String target) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, INSTANCE_ID + "|" + target);
+        } catch (Exception e) {
+            System.err.println("Failed to publish cache invalidation: " + e.getMessage());
+        }
+    }
+    
+    private String serialize(Vehicle vehicle) {
+        try {
+            return objectMapper.writeValueAsString(vehicle);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to cache vehicle " + vehicle.getId(), e);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.rental.availability.service;
+
+import com.rental.availability.dto.VehicleSort;
+import com.rental.availability.entity.Vehicle;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last vehicle on a page.
+ */
+final class VehicleCursor {
+    
+    final Comparable<?> sortValue;
+    final Long id;
+    
+    private VehicleCursor(Comparable<?> sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+    
+    static VehicleCursor of(VehicleSort sort, Vehicle last) {
+        Comparable<?> value = switch (sort) {
+            case PRICE -> last.getDailyRate();
+            case YEAR -> last.getYear();
+            case ID -> null;
+        };
+        return new VehicleCursor(value, last.getId());
+    }
+    
+    String encode(VehicleSort sort) {
+        String value = sortValue instanceof BigDecimal decimal ? decimal.toPlainString()
+                : sortValue == null ? "" : sortValue.toString();
+        String raw = sort.name() + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static VehicleCursor decode(String cursor, VehicleSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (parts.length != 3 || !sort.name().equals(parts[0])) {
+            throw new IllegalArgumentException("Cursor does not match sort order " + sort);
+        }
+        try {
+            Comparable<?> value = switch (sort) {
+                case PRICE -> new BigDecimal(parts[1]);
+                case YEAR -> Integer.valueOf(parts[1]);
+                case ID -> null;
+            };
+            return new VehicleCursor(value, Long.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.rental.availability.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.availability.dto.ImportResult;
+import com.rental.availability.entity.Vehicle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams vehicles from a JSON-lines or CSV body into the vehicles table using
+ * JDBC batches, then refreshes the caches once for the whole import.
+ */
+@Service
+public class VehicleImportService {
+    
+    private static final String INSERT_SQL = "INSERT INTO vehicles " +
+            "(make, model, year, location, daily_rate, type, license_plate, color, fuel_type, transmission, seats, image_url) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private VehicleCacheService cacheService;
+    
+    @Value("${bulk-import.batch-size}")
+    private int batchSize;
+    
+    @Value("${bulk-import.max-reported-errors}")
+    private int maxReportedErrors;
+    
+    public ImportResult importJsonLines(BufferedReader reader) throws IOException {
+        ImportResult result = new ImportResult();
+        Batch batch = new Batch();
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Vehicle vehicle = objectMapper.readValue(line, Vehicle.class);
+                validate(vehicle);
+                batch.add(lineNumber, vehicle);
+            } catch (Exception e) {
+                reject(result, lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+        finish(batch);
+        return result;
+    }
+    
+    public ImportResult importCsv(BufferedReader reader) throws IOException {
+        ImportResult result = new ImportResult();
+        String header = reader.readLine();
+        if (header == null) {
+            return result;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : parseCsvLine(header)) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        
+        Batch batch = new Batch();
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                List<String> values = parseCsvLine(line);
+                if (values.size() != columns.size()) {
+                    throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + values.size());
+                }
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    row.put(columns.get(i), values.get(i).isBlank() ? null : values.get(i).trim());
+                }
+                Vehicle vehicle = toVehicle(row);
+                validate(vehicle);
+                batch.add(lineNumber, vehicle);
+            } catch (Exception e) {
+                reject(result, lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+        finish(batch);
+        return result;
+    }
+    
+    private void flush(Batch batch, ImportResult result) {
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            // Each batch commits on its own so one bad batch does not roll back the whole import
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch.vehicles, batch.size(), VehicleImportService::bind));
+            result.setImported(result.getImported() + batch.size());
+            batch.vehicles.forEach(v -> batch.locations.add(v.getLocation()));
+        } catch (Exception e) {
+            // The batch error doesn't say which row caused it, so retry the rows one by one
+            insertOneByOne(batch, result);
+        }
+        batch.clear();
+    }
+    
+    private void insertOneByOne(Batch batch, ImportResult result) {
+        for (int i = 0; i < batch.size(); i++) {
+            Vehicle vehicle = batch.vehicles.get(i);
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, vehicle));
+                result.setImported(result.getImported() + 1);
+                batch.locations.add(vehicle.getLocation());
+            } catch (Exception e) {
+                reject(result, batch.lines.get(i), e.getMessage());
+            }
+        }
+    }
+    
+    private static void bind(PreparedStatement ps, Vehicle v) throws SQLException {
+        ps.setString(1, v.getMake());
+        ps.setString(2, v.getModel());
+        ps.setInt(3, v.getYear());
+        ps.setString(4, v.getLocation());
+        ps.setBigDecimal(5, v.getDailyRate());
+        ps.setString(6, v.getType());
+        ps.setString(7, v.getLicensePlate());
+        ps.setString(8, v.getColor());
+        ps.setString(9, v.getFuelType());
+        ps.setString(10, v.getTransmission());
+        if (v.getSeats() != null) {
+            ps.setInt(11, v.getSeats());
+        } else {
+            ps.setNull(11, Types.INTEGER);
+        }
+        ps.setString(12, v.getImageUrl());
+    }
+    
+    private void finish(Batch batch) {
+        if (batch.locations.isEmpty()) {
+            return;
+        }
+        cacheService.refreshCache();
+        batch.locations.forEach(cacheService::invalidateSearches);
+    }
+    
+    private void reject(ImportResult result, long lineNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ImportResult.RowError(lineNumber, message));
+        }
+    }
+    
+    private Vehicle toVehicle(Map<String, String> row) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake(row.get("make"));
+        vehicle.setModel(row.get("model"));
+        vehicle.setYear(row.get("year") == null ? null : Integer.valueOf(row.get("year")));
+        vehicle.setLocation(row.get("location"));
+        vehicle.setDailyRate(row.get("dailyrate") == null ? null : new BigDecimal(row.get("dailyrate")));
+        vehicle.setType(row.get("type"));
+        vehicle.setLicensePlate(row.get("licenseplate"));
+        vehicle.setColor(row.get("color"));
+        vehicle.setFuelType(row.get("fueltype"));
+        vehicle.setTransmission(row.get("transmission"));
+        vehicle.setSeats(row.get("seats") == null ? null : Integer.valueOf(row.get("seats")));
+        vehicle.setImageUrl(row.get("imageurl"));
+        return vehicle;
+    }
+    
+    private void validate(Vehicle vehicle) {
+        if (vehicle.getMake() == null || vehicle.getModel() == null || vehicle.getYear() == null
+                || vehicle.getLocation() == null || vehicle.getDailyRate() == null || vehicle.getType() == null) {
+            throw new IllegalArgumentException("make, model, year, location, dailyRate and type are required");
+        }
+        if (vehicle.getDailyRate().signum() <= 0) {
+            throw new IllegalArgumentException("dailyRate must be greater than zero");
+        }
+    }
+    
+    // Splits one CSV record, honouring double-quoted fields and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+    
+    private static class Batch {
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<Long> lines = new ArrayList<>();
+        final Set<String> locations = new HashSet<>();
+        
+        void add(long lineNumber, Vehicle vehicle) {
+            vehicles.add(vehicle);
+            lines.add(lineNumber);
+        }
+        
+        int size() {
+            return vehicles.size();
+        }
+        
+        void clear() {
+            vehicles.clear();
+            lines.clear();
+        }
+    }
+}
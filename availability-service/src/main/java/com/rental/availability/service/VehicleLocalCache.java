@@ -0,0 +1,63 @@
+package com.rental.availability.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.availability.entity.Vehicle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * In-process (L1) cache of deserialized vehicles in front of the Redis catalog (L2).
+ * Entries are bounded by size and TTL; cross-instance invalidation arrives via
+ * {@link VehicleCacheService#INVALIDATION_CHANNEL}.
+ */
+@Component
+public class VehicleLocalCache {
+    
+    private static final String CATALOG_KEY = "all";
+    
+    private final Cache<String, List<Vehicle>> catalog;
+    private final Cache<Long, Vehicle> vehicles;
+    
+    public VehicleLocalCache(@Value("${cache.l1.max-size}") long maxSize,
+                             @Value("${cache.l1.ttl-seconds}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.vehicles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "vehicles.l1.catalog");
+        CaffeineCacheMetrics.monitor(meterRegistry, vehicles, "vehicles.l1.vehicle");
+    }
+    
+    public List<Vehicle> getCatalog(Supplier<List<Vehicle>> loader) {
+        return catalog.get(CATALOG_KEY, key -> List.copyOf(loader.get()));
+    }
+    
+    public Optional<Vehicle> getVehicle(Long vehicleId, Supplier<Optional<Vehicle>> loader) {
+        return Optional.ofNullable(vehicles.get(vehicleId, id -> loader.get().orElse(null)));
+    }
+    
+    public void invalidate(Long vehicleId) {
+        vehicles.invalidate(vehicleId);
+        catalog.invalidateAll();
+    }
+    
+    public void invalidateAll() {
+        vehicles.invalidateAll();
+        catalog.invalidateAll();
+    }
+}
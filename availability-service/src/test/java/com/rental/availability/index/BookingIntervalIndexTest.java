@@ -0,0 +1,75 @@
+package com.rental.availability.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingIntervalIndexTest {
+    
+    private static final LocalDate TODAY = LocalDate.now();
+    
+    private OccupancyCalendar calendar;
+    private BookingIntervalIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        calendar = new OccupancyCalendar();
+        ReflectionTestUtils.setField(calendar, "pastDays", 7);
+        ReflectionTestUtils.setField(calendar, "horizonDays", 100);
+        calendar.roll();
+        index = new BookingIntervalIndex();
+        ReflectionTestUtils.setField(index, "occupancyCalendar", calendar);
+    }
+    
+    @Test
+    void answersFromTheBitmapInsideTheHorizon() {
+        index.put(1L, 10L, TODAY.plusDays(5), TODAY.plusDays(8));
+        
+        assertNotNull(calendar.bitmap(10L));
+        assertFalse(index.isAvailable(10L, TODAY.plusDays(8), TODAY.plusDays(9)));
+        assertTrue(index.isAvailable(10L, TODAY.plusDays(9), TODAY.plusDays(12)));
+        assertTrue(index.isAvailable(11L, TODAY.plusDays(5), TODAY.plusDays(8)));
+    }
+    
+    @Test
+    void fallsBackToTheTimelineBeyondTheHorizon() {
+        index.put(1L, 10L, TODAY.plusDays(200), TODAY.plusDays(210));
+        
+        assertTrue(calendar.bitmap(10L).isFree(TODAY.plusDays(80), TODAY.plusDays(205)));
+        assertFalse(index.isAvailable(10L, TODAY.plusDays(80), TODAY.plusDays(205)));
+        assertTrue(index.isAvailable(10L, TODAY.plusDays(211), TODAY.plusDays(220)));
+    }
+    
+    @Test
+    void removeAndMoveKeepTheBitmapsInStep() {
+        index.put(1L, 10L, TODAY.plusDays(5), TODAY.plusDays(8));
+        index.put(2L, 10L, TODAY.plusDays(20), TODAY.plusDays(21));
+        
+        index.remove(1L);
+        assertTrue(index.isAvailable(10L, TODAY.plusDays(5), TODAY.plusDays(8)));
+        assertFalse(index.isAvailable(10L, TODAY.plusDays(20), TODAY.plusDays(20)));
+        
+        // Same booking id on another vehicle, e.g. a corrected booking event
+        index.put(2L, 11L, TODAY.plusDays(20), TODAY.plusDays(21));
+        assertTrue(index.isAvailable(10L, TODAY.plusDays(20), TODAY.plusDays(21)));
+        assertFalse(index.isAvailable(11L, TODAY.plusDays(20), TODAY.plusDays(21)));
+        assertNull(calendar.bitmap(10L));
+    }
+    
+    @Test
+    void rollRebuildsEveryBitmapAndDropsStaleOnes() {
+        index.put(1L, 10L, TODAY.plusDays(5), TODAY.plusDays(8));
+        // A bitmap whose timeline is gone, as left behind by a reload
+        calendar.update(99L, VehicleTimeline.EMPTY.with(7L, TODAY, TODAY));
+        
+        index.rollCalendar();
+        
+        assertNull(calendar.bitmap(99L));
+        assertFalse(calendar.bitmap(10L).isFree(TODAY.plusDays(5), TODAY.plusDays(8)));
+        assertTrue(index.isAvailable(99L, TODAY, TODAY));
+    }
+}
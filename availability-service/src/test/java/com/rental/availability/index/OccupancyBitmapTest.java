@@ -0,0 +1,92 @@
+package com.rental.availability.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyBitmapTest {
+    
+    private static final LocalDate ORIGIN = LocalDate.of(2026, 1, 1);
+    
+    private static LocalDate day(int offset) {
+        return ORIGIN.plusDays(offset);
+    }
+    
+    private static OccupancyBitmap bitmap(int days, int... startEndOffsets) {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY;
+        for (int i = 0; i < startEndOffsets.length; i += 2) {
+            timeline = timeline.with((long) i, day(startEndOffsets[i]), day(startEndOffsets[i + 1]));
+        }
+        return new OccupancyBitmap(ORIGIN, days, timeline);
+    }
+    
+    @Test
+    void coversOnlyRangesInsideTheHorizon() {
+        OccupancyBitmap bitmap = bitmap(100);
+        
+        assertTrue(bitmap.covers(day(0), day(99)));
+        assertFalse(bitmap.covers(day(-1), day(10)));
+        assertFalse(bitmap.covers(day(10), day(100)));
+    }
+    
+    @Test
+    void bookedDaysAreInclusiveAtBothEnds() {
+        OccupancyBitmap bitmap = bitmap(100, 10, 12);
+        
+        assertTrue(bitmap.isFree(day(0), day(9)));
+        assertFalse(bitmap.isFree(day(0), day(10)));
+        assertFalse(bitmap.isFree(day(11), day(11)));
+        assertFalse(bitmap.isFree(day(12), day(20)));
+        assertTrue(bitmap.isFree(day(13), day(99)));
+        assertEquals(3, bitmap.cardinality());
+    }
+    
+    @Test
+    void rangesAcrossWordBoundaries() {
+        OccupancyBitmap bitmap = bitmap(200, 63, 64, 127, 130);
+        
+        assertFalse(bitmap.isFree(day(63), day(63)));
+        assertFalse(bitmap.isFree(day(64), day(64)));
+        assertTrue(bitmap.isFree(day(65), day(126)));
+        assertFalse(bitmap.isFree(day(0), day(199)));
+        assertFalse(bitmap.isFree(day(128), day(128)));
+        assertTrue(bitmap.isFree(day(131), day(199)));
+        assertEquals(6, bitmap.cardinality());
+    }
+    
+    @Test
+    void bookingsOutsideTheHorizonAreClipped() {
+        OccupancyBitmap bitmap = bitmap(70, -5, 1, 68, 80);
+        
+        assertEquals(2 + 2, bitmap.cardinality());
+        assertFalse(bitmap.isFree(day(0), day(0)));
+        assertTrue(bitmap.isFree(day(2), day(67)));
+        assertFalse(bitmap.isFree(day(69), day(69)));
+    }
+    
+    @Test
+    void sliceReadsWithinAndAcrossWords() {
+        OccupancyBitmap bitmap = bitmap(200, 62, 65);
+        
+        assertEquals(0b1111L, bitmap.slice(day(62), 4));
+        assertEquals(0b111100L, bitmap.slice(day(60), 6));
+        assertEquals(0L, bitmap.slice(day(0), 31));
+        // Straddling the end of the horizon: days past it read as free
+        assertEquals(0L, bitmap.slice(day(190), 31));
+    }
+    
+    @Test
+    void bitmapBuiltBeforeARollDoesNotCoverTheNewLastDay() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY.with(1L, day(100), day(100));
+        OccupancyBitmap beforeRoll = new OccupancyBitmap(ORIGIN, 100, timeline);
+        OccupancyBitmap afterRoll = new OccupancyBitmap(ORIGIN.plusDays(1), 100, timeline);
+        
+        // The old bitmap would call day 100 free, so callers must see that it isn't covered
+        assertFalse(beforeRoll.covers(day(95), day(100)));
+        assertTrue(beforeRoll.isFree(day(95), day(100)));
+        assertTrue(afterRoll.covers(day(95), day(100)));
+        assertFalse(afterRoll.isFree(day(95), day(100)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.rental.availability.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleTimelineTest {
+    
+    private static final LocalDate D = LocalDate.of(2026, 6, 1);
+    
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+    
+    @Test
+    void overlapIsInclusiveAtBothEnds() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY.with(1L, day(10), day(12));
+        
+        assertTrue(timeline.overlaps(day(12), day(15)));
+        assertTrue(timeline.overlaps(day(5), day(10)));
+        assertTrue(timeline.overlaps(day(11), day(11)));
+        assertTrue(timeline.overlaps(day(0), day(30)));
+        assertFalse(timeline.overlaps(day(13), day(20)));
+        assertFalse(timeline.overlaps(day(0), day(9)));
+    }
+    
+    @Test
+    void adjacentAndOverlappingBookingsMergeIntoOneRange() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY
+                .with(1L, day(10), day(12))
+                .with(2L, day(13), day(14))
+                .with(3L, day(11), day(20))
+                .with(4L, day(30), day(31));
+        
+        assertEquals(Map.of(day(10), day(20), day(30), day(31)), timeline.getRanges());
+        assertFalse(timeline.overlaps(day(21), day(29)));
+    }
+    
+    @Test
+    void longEarlierBookingIsNotHiddenByAShorterLaterOne() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY
+                .with(1L, day(0), day(20))
+                .with(2L, day(5), day(6));
+        
+        assertTrue(timeline.overlaps(day(15), day(16)));
+    }
+    
+    @Test
+    void sameStartDateKeepsTheLongerEnd() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY
+                .with(1L, day(10), day(20))
+                .with(2L, day(10), day(11));
+        
+        assertTrue(timeline.overlaps(day(18), day(19)));
+        assertTrue(timeline.without(1L).overlaps(day(11), day(11)));
+        assertFalse(timeline.without(1L).overlaps(day(12), day(20)));
+    }
+    
+    @Test
+    void withoutSplitsMergedRangesAgain() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY
+                .with(1L, day(10), day(12))
+                .with(2L, day(13), day(14))
+                .with(3L, day(15), day(16));
+        
+        VehicleTimeline removed = timeline.without(2L);
+        
+        assertEquals(Map.of(day(10), day(12), day(15), day(16)), removed.getRanges());
+        assertSame(timeline, timeline.without(99L));
+        assertSame(VehicleTimeline.EMPTY, removed.without(1L).without(3L));
+    }
+    
+    @Test
+    void updatingABookingReplacesItsRange() {
+        VehicleTimeline timeline = VehicleTimeline.EMPTY
+                .with(1L, day(10), day(12))
+                .with(1L, day(20), day(22));
+        
+        assertEquals(1, timeline.size());
+        assertArrayEquals(new LocalDate[]{day(20), day(22)}, timeline.rangeOf(1L));
+        assertFalse(timeline.overlaps(day(10), day(12)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.rental.availability.service;
+
+import com.rental.availability.dto.VehicleSort;
+import com.rental.availability.entity.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleCursorTest {
+    
+    private static Vehicle vehicle(long id, String dailyRate, int year) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setDailyRate(new BigDecimal(dailyRate));
+        vehicle.setYear(year);
+        return vehicle;
+    }
+    
+    private static VehicleCursor roundTrip(VehicleSort sort, Vehicle last) {
+        return VehicleCursor.decode(VehicleCursor.of(sort, last).encode(sort), sort);
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void roundTripsEverySortOrder() {
+        Vehicle last = vehicle(7_312_845_116_817_408L, "49.90", 2024);
+        
+        VehicleCursor byPrice = roundTrip(VehicleSort.PRICE, last);
+        assertEquals(new BigDecimal("49.90"), byPrice.sortValue);
+        assertEquals(7_312_845_116_817_408L, byPrice.id);
+        
+        VehicleCursor byYear = roundTrip(VehicleSort.YEAR, last);
+        assertEquals(2024, byYear.sortValue);
+        assertEquals(7_312_845_116_817_408L, byYear.id);
+        
+        VehicleCursor byId = roundTrip(VehicleSort.ID, last);
+        assertNull(byId.sortValue);
+        assertEquals(7_312_845_116_817_408L, byId.id);
+    }
+    
+    @Test
+    void pricesAreEncodedWithoutExponents() {
+        VehicleCursor cursor = roundTrip(VehicleSort.PRICE, vehicle(1, "1E+3", 2020));
+        
+        assertEquals(0, new BigDecimal("1000").compareTo((BigDecimal) cursor.sortValue));
+        assertTrue(new String(Base64.getUrlDecoder().decode(
+                VehicleCursor.of(VehicleSort.PRICE, vehicle(1, "1E+3", 2020)).encode(VehicleSort.PRICE)),
+                StandardCharsets.UTF_8).contains("|1000|"));
+    }
+    
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(VehicleCursor.decode(null, VehicleSort.PRICE));
+        assertNull(VehicleCursor.decode(" ", VehicleSort.PRICE));
+    }
+    
+    @Test
+    void rejectsACursorFromAnotherSortOrder() {
+        String byYear = VehicleCursor.of(VehicleSort.YEAR, vehicle(1, "10", 2020)).encode(VehicleSort.YEAR);
+        
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(byYear, VehicleSort.PRICE));
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode("not base64!", VehicleSort.ID));
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(encode("PRICE|10"), VehicleSort.PRICE));
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(encode("PRICE|cheap|1"), VehicleSort.PRICE));
+        assertThrows(IllegalArgumentException.class, () -> VehicleCursor.decode(encode("YEAR|2020|x"), VehicleSort.YEAR));
+    }
+}
@@ -0,0 +1,36 @@
+package com.rental.availability.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleImportServiceTest {
+    
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("Toyota", "Corolla", "2022", "SEDAN"),
+                VehicleImportService.parseCsvLine("Toyota,Corolla,2022,SEDAN"));
+    }
+    
+    @Test
+    void keepsCommasInsideQuotes() {
+        assertEquals(List.of("Ford", "Transit", "Berlin, Mitte", "89.00"),
+                VehicleImportService.parseCsvLine("Ford,Transit,\"Berlin, Mitte\",89.00"));
+    }
+    
+    @Test
+    void unescapesDoubledQuotes() {
+        assertEquals(List.of("Mini", "Cooper \"S\"", "x"),
+                VehicleImportService.parseCsvLine("Mini,\"Cooper \"\"S\"\"\",x"));
+        assertEquals(List.of("\""), VehicleImportService.parseCsvLine("\"\"\"\""));
+    }
+    
+    @Test
+    void keepsEmptyAndTrailingFields() {
+        assertEquals(List.of("a", "", "b", ""), VehicleImportService.parseCsvLine("a,,b,"));
+        assertEquals(List.of("", ""), VehicleImportService.parseCsvLine(","));
+        assertEquals(List.of("", "x"), VehicleImportService.parseCsvLine("\"\",x"));
+    }
+}
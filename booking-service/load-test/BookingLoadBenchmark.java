@@ -0,0 +1,136 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test of {@code POST /bookings}: a fixed number of clients each send a
+ * booking, wait for the answer and send the next. Every request uses a random vehicle and
+ * date range so almost none collide, which keeps the measurement on the request path
+ * (Redis lock, ledger, Postgres insert, outbox row) rather than on rejected conflicts.
+ * Latency is recorded for every request, failed or not, so a server that fails fast under
+ * load doesn't look faster; failures are reported as a separate error rate.
+ * Needs a running booking-service; run-booking-load-benchmark.sh starts one per thread mode:
+ *
+ * <pre>
+ * java BookingLoadBenchmark.java \
+ *      [url=http://localhost:8081/bookings] [clients=400] [warmup-seconds=15] [seconds=60] [label=]
+ * </pre>
+ */
+public class BookingLoadBenchmark {
+    
+    private static final int VEHICLES = 1_000_000;
+    
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8081/bookings";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int warmupSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+        String label = args.length > 4 ? args[4] : "";
+        
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        run(client, url, clients, warmupSeconds, null);
+        Result result = run(client, url, clients, seconds, new Result(clients));
+        
+        long[] latencies = result.latencies();
+        long errors = result.errors();
+        System.out.printf("%-10s %-8s %-12s %-10s %-10s %-10s %-10s %s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "error %");
+        System.out.printf("%-10s %-8d %-12.0f %-10.1f %-10.1f %-10.1f %-10d %.2f%n",
+                label, clients, latencies.length / (double) seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                errors, latencies.length == 0 ? 0.0 : 100.0 * errors / latencies.length);
+    }
+    
+    private static Result run(HttpClient client, String url, int clients, int seconds, Result result)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int clientIndex = c;
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long started = System.nanoTime();
+                    boolean ok = send(client, url);
+                    if (result != null) {
+                        result.record(clientIndex, System.nanoTime() - started, ok);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return result;
+    }
+    
+    private static boolean send(HttpClient client, String url) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(3650));
+        String body = "{\"vehicleId\":" + (1 + random.nextInt(VEHICLES))
+                + ",\"userId\":" + (1 + random.nextInt(10_000))
+                + ",\"startDate\":\"" + start + "\",\"endDate\":\"" + start.plusDays(1 + random.nextInt(7))
+                + "\",\"dailyRate\":49.99}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 201;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+    
+    // One latency list and error count per client so recording needs no synchronization
+    private static final class Result {
+        
+        private final List<List<Long>> perClient = new ArrayList<>();
+        private final long[] errorsPerClient;
+        
+        Result(int clients) {
+            for (int c = 0; c < clients; c++) {
+                perClient.add(new ArrayList<>());
+            }
+            errorsPerClient = new long[clients];
+        }
+        
+        void record(int clientIndex, long nanos, boolean ok) {
+            perClient.get(clientIndex).add(nanos);
+            if (!ok) {
+                errorsPerClient[clientIndex]++;
+            }
+        }
+        
+        long[] latencies() {
+            long[] all = perClient.stream().flatMap(List::stream).mapToLong(Long::longValue).toArray();
+            Arrays.sort(all);
+            return all;
+        }
+        
+        long errors() {
+            return Arrays.stream(errorsPerClient).sum();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+#!/bin/bash
+# Compares POST /bookings throughput and latency with platform and virtual request threads.
+# Needs Docker and JDK 21 (virtual threads are ignored on older JDKs).
+# Usage: booking-service/load-test/run-booking-load-benchmark.sh [clients=400] [seconds=60]
+
+set -e
+
+CLIENTS=${1:-400}
+SECONDS_PER_RUN=${2:-60}
+HERE=$(cd "$(dirname "$0")" && pwd)
+ROOT=$(cd "$HERE/../.." && pwd)
+
+JAVA_MAJOR=$(java -version 2>&1 | head -1 | sed -E 's/.*version "([0-9]+).*/\1/')
+if [ "$JAVA_MAJOR" -lt 21 ]; then
+    echo "JDK 21 or newer is required for virtual threads (found $JAVA_MAJOR)"
+    exit 1
+fi
+
+echo "Starting Postgres, Redis and Kafka..."
+docker compose -f "$ROOT/docker-compose.yml" up -d postgres redis zookeeper kafka
+until docker exec postgres pg_isready -U postgres > /dev/null 2>&1; do sleep 1; done
+docker exec postgres psql -U postgres -tc "SELECT 1 FROM pg_database WHERE datname = 'booking_db'" | grep -q 1 \
+    || docker exec postgres psql -U postgres -c "CREATE DATABASE booking_db"
+
+echo "Building..."
+mvn -B -q -f "$ROOT/rental-events/pom.xml" install -DskipTests
+mvn -B -q -f "$ROOT/rental-common/pom.xml" install -DskipTests
+mvn -B -q -f "$ROOT/booking-service/pom.xml" package -DskipTests
+
+for VIRTUAL in false true; do
+    # Start every run from empty tables so index sizes are comparable. The fences go with the
+    # Redis flush, otherwise the second run's fresh token counters would start below them
+    docker exec postgres psql -U postgres -d booking_db -c "TRUNCATE bookings, outbox_events, reservation_fences" > /dev/null 2>&1 || true
+    docker exec redis redis-cli FLUSHALL > /dev/null
+    
+    VIRTUAL_THREADS_ENABLED=$VIRTUAL java -jar "$ROOT"/booking-service/target/booking-service-1.0.0.jar \
+        --spring.jpa.show-sql=false > "$ROOT/booking-service/target/load-$VIRTUAL.log" 2>&1 &
+    APP_PID=$!
+    until curl -sf http://localhost:8081/actuator/health > /dev/null; do sleep 1; done
+    
+    if [ "$VIRTUAL" = "true" ]; then LABEL=virtual; else LABEL=platform; fi
+    java "$HERE/BookingLoadBenchmark.java" \
+        http://localhost:8081/bookings "$CLIENTS" 15 "$SECONDS_PER_RUN" "$LABEL"
+    
+    kill $APP_PID
+    wait $APP_PID 2>/dev/null || true
+done
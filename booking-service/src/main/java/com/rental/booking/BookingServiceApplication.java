@@ -1,9 +1,16 @@
 package com.rental.booking;
 
+import com.rental.common.id.WorkerIdLease;
+import com.rental.common.idempotency.IdempotencyService;
+import com.rental.common.outbox.OutboxConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@Import({OutboxConfiguration.class, IdempotencyService.class, WorkerIdLease.class})
 public class BookingServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(BookingServiceApplication.class, args);
@@ -0,0 +1,64 @@
+package com.rental.booking.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Adds database objects Hibernate's ddl-auto cannot express. The exclusion constraint is
+ * the last line of defence against double booking: no two PENDING/CONFIRMED bookings of
+ * the same vehicle may have overlapping [start_date, end_date] ranges. Startup fails if
+ * the constraint cannot be installed, listing the overlapping bookings that prevent it.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class BookingSchemaInitializer {
+    
+    private static final int MAX_REPORTED_CONFLICTS = 20;
+    
+    private static final String CONSTRAINT_EXISTS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_no_overlap')";
+    
+    private static final String CONFLICTS_SQL = "SELECT a.vehicle_id, a.id AS first_id, b.id AS second_id, " +
+            "a.start_date AS first_start, a.end_date AS first_end, b.start_date AS second_start, b.end_date AS second_end " +
+            "FROM bookings a JOIN bookings b ON b.vehicle_id = a.vehicle_id AND b.id > a.id " +
+            "AND b.start_date <= a.end_date AND a.start_date <= b.end_date " +
+            "WHERE a.status IN ('PENDING', 'CONFIRMED') AND b.status IN ('PENDING', 'CONFIRMED') " +
+            "ORDER BY a.vehicle_id, a.id LIMIT " + MAX_REPORTED_CONFLICTS;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PostConstruct
+    public void initialize() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Boolean.class))) {
+            return;
+        }
+        
+        List<String> conflicts = jdbcTemplate.query(CONFLICTS_SQL, (rs, rowNum) -> String.format(
+                "vehicle %d: booking %d [%s, %s] overlaps booking %d [%s, %s]",
+                rs.getLong("vehicle_id"), rs.getLong("first_id"), rs.getDate("first_start"), rs.getDate("first_end"),
+                rs.getLong("second_id"), rs.getDate("second_start"), rs.getDate("second_end")));
+        if (!conflicts.isEmpty()) {
+            conflicts.forEach(conflict -> System.err.println("Double booking: " + conflict));
+            throw new IllegalStateException("Cannot install bookings_no_overlap: " + conflicts.size()
+                    + (conflicts.size() == MAX_REPORTED_CONFLICTS ? "+" : "")
+                    + " pairs of active bookings overlap; cancel one booking of each pair listed above");
+        }
+        
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        // Re-checked inside the statement in case another instance installed it meanwhile
+        jdbcTemplate.execute(
+                "DO $$ BEGIN " +
+                "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_no_overlap') THEN " +
+                "ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (" +
+                "vehicle_id WITH =, daterange(start_date, end_date, '[]') WITH &&) " +
+                "WHERE (status IN ('PENDING', 'CONFIRMED')); " +
+                "END IF; END $$");
+        System.out.println("Installed booking overlap constraint bookings_no_overlap");
+    }
+}
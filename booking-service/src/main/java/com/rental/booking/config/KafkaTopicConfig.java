@@ -0,0 +1,34 @@
+package com.rental.booking.config;
+
+import com.rental.common.kafka.TopicStartOffsets;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+
+/**
+ * booking-events is owned by this service. Events are keyed by booking id, so the
+ * partition count bounds how many consumer threads can work on it in parallel.
+ * KafkaAdmin creates the topic on startup and adds partitions to an existing one.
+ */
+@Configuration
+public class KafkaTopicConfig {
+    
+    @Bean
+    public NewTopic bookingEventsTopic(@Value("${kafka.topics.partitions}") int partitions,
+                                       @Value("${kafka.topics.replicas}") short replicas) {
+        return TopicBuilder.name("booking-events")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+    
+    // Captured before the ledger and hold timers load from the bookings table; see BookingEventListener
+    @Bean
+    public TopicStartOffsets bookingEventsStart(ConsumerFactory<?, ?> consumerFactory,
+                                                @Value("${kafka.topics.partitions}") int partitions) {
+        return TopicStartOffsets.atEnd("booking-events", consumerFactory, partitions);
+    }
+}
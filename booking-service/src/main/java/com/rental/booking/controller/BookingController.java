@@ -1,8 +1,13 @@
 package com.rental.booking.controller;
 
+import com.rental.booking.dto.BookingHistoryCriteria;
+import com.rental.booking.dto.BookingHistoryPage;
+import com.rental.booking.dto.CreateBatchBookingRequest;
 import com.rental.booking.dto.CreateBookingRequest;
 import com.rental.booking.entity.Booking;
+import com.rental.booking.service.BookingHistoryService;
 import com.rental.booking.service.BookingService;
+import com.rental.common.idempotency.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,8 +25,20 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private BookingHistoryService bookingHistoryService;
+    
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestBody CreateBookingRequest request) {
+    public ResponseEntity<?> createBooking(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody CreateBookingRequest request) {
+        return idempotencyService.execute("bookings", idempotencyKey, request, () -> doCreateBooking(request));
+    }
+    
+    private ResponseEntity<?> doCreateBooking(CreateBookingRequest request) {
         try {
             Booking booking = bookingService.createBooking(
                     request.getVehicleId(),
@@ -38,6 +55,28 @@ public class BookingController {
         }
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody CreateBatchBookingRequest request) {
+        return idempotencyService.execute("bookings-batch", idempotencyKey, request, () -> doCreateBookings(request));
+    }
+    
+    private ResponseEntity<?> doCreateBookings(CreateBatchBookingRequest request) {
+        try {
+            List<Booking> bookings = bookingService.createBookings(request.getBookings());
+            return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+    }
+    
     @PutMapping("/{id}/confirm")
     public ResponseEntity<?> confirmBooking(@PathVariable Long id) {
         try {
@@ -76,4 +115,16 @@ public class BookingController {
         List<Booking> bookings = bookingService.getUserBookings(userId);
         return ResponseEntity.ok(bookings);
     }
+    
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getUserBookingHistory(@PathVariable Long userId, BookingHistoryCriteria criteria) {
+        try {
+            BookingHistoryPage page = bookingHistoryService.getHistory(userId, criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package com.rental.booking.dto;
+
+import com.rental.booking.entity.Booking;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class BookingHistoryCriteria {
+    
+    private Booking.BookingStatus status;
+    
+    // Bookings whose dates overlap [from, to]
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    
+    private String cursor;
+    private int size = 20;
+}
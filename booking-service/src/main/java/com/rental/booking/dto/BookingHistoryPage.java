@@ -0,0 +1,15 @@
+package com.rental.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingHistoryPage {
+    private List<BookingSummary> items;
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.rental.booking.dto;
+
+import com.rental.booking.entity.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSummary {
+    private Long id;
+    private Long vehicleId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Booking.BookingStatus status;
+    private BigDecimal totalCost;
+    private LocalDateTime createdAt;
+}
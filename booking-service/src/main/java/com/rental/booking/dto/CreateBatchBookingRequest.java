@@ -0,0 +1,10 @@
+package com.rental.booking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateBatchBookingRequest {
+    private List<CreateBookingRequest> bookings;
+}
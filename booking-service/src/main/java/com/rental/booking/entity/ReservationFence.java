@@ -0,0 +1,39 @@
+package com.rental.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Highest fencing token that has written a reservation for a vehicle on a given day.
+ * A write carrying an older token comes from a lock holder whose lock has expired.
+ */
+@Entity
+@Table(name = "reservation_fences")
+@IdClass(ReservationFence.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationFence {
+    
+    @Id
+    private Long vehicleId;
+    
+    @Id
+    private LocalDate day;
+    
+    @Column(nullable = false)
+    private Long token;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long vehicleId;
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,81 @@
+package com.rental.booking.kafka;
+
+import com.rental.booking.entity.Booking;
+import com.rental.booking.service.BookingCache;
+import com.rental.booking.service.BookingHoldExpiryService;
+import com.rental.booking.service.ReservationLedger;
+import com.rental.common.kafka.TopicStartOffsets;
+import com.rental.events.BookingEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Keeps this instance's reservation ledger, hold timers and booking cache in step with
+ * bookings made, confirmed or cancelled by any booking-service instance. Every instance
+ * reads every partition itself, starting at the offsets captured before the ledger and
+ * hold timers were loaded, so nothing committed during startup is missed.
+ */
+@Service
+public class BookingEventListener implements ConsumerSeekAware {
+    
+    @Autowired
+    private ReservationLedger reservationLedger;
+    
+    @Autowired
+    private BookingHoldExpiryService holdExpiryService;
+    
+    @Autowired
+    private BookingCache bookingCache;
+    
+    @Autowired
+    private TopicStartOffsets bookingEventsStart;
+    
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "booking-events",
+            partitions = "#{@bookingEventsStart.partitions()}"))
+    public void handleBookingEvent(BookingEvent event) {
+        try {
+            // The writing instance has already updated Redis; drop any older in-process copy
+            bookingCache.evictLocal(event.bookingId());
+            switch (event.type()) {
+                case BOOKING_CREATED:
+                    holdExpiryService.track(event.bookingId());
+                    addToLedger(event);
+                    break;
+                case BOOKING_CONFIRMED:
+                    holdExpiryService.untrack(event.bookingId());
+                    addToLedger(event);
+                    break;
+                case BOOKING_CANCELLED:
+                    holdExpiryService.untrack(event.bookingId());
+                    reservationLedger.remove(event.bookingId());
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to process booking event: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments,
+                                     ConsumerSeekCallback callback) {
+        bookingEventsStart.seek(assignments.keySet(), callback);
+    }
+    
+    private void addToLedger(BookingEvent event) {
+        if (event.startDate() != null) {
+            Booking booking = new Booking();
+            booking.setId(event.bookingId());
+            booking.setVehicleId(event.vehicleId());
+            booking.setStartDate(event.startDate());
+            booking.setEndDate(event.endDate());
+            reservationLedger.add(booking);
+        }
+    }
+}
@@ -1,30 +1,91 @@
 package com.rental.booking.kafka;
 
+import com.rental.booking.entity.Booking;
+import com.rental.common.outbox.OutboxEvent;
+import com.rental.common.outbox.OutboxEventRepository;
+import com.rental.common.outbox.OutboxRelay;
+import com.rental.events.BookingEvent;
+import com.rental.events.EventCodec;
+import com.rental.events.EventType;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes booking events to the outbox in the caller's transaction; {@link OutboxRelay}
+ * publishes them to Kafka after commit, so a rollback never leaves an event behind.
+ */
 @Service
+@Transactional(propagation = Propagation.MANDATORY)
 public class BookingEventProducer {
     
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
     private static final String TOPIC = "booking-events";
     
-    public void publishBookingCreated(Long bookingId, Long vehicleId, Long userId) {
-        String message = String.format("{\"event\":\"booking_created\",\"bookingId\":%d,\"vehicleId\":%d,\"userId\":%d}", 
-                bookingId, vehicleId, userId);
-        kafkaTemplate.send(TOPIC, message);
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO outbox_events (topic, event_key, payload, created_at) VALUES (?, ?, ?, ?)";
+    
+    public void publishBookingCreated(Booking booking) {
+        enqueue(toEvent(EventType.BOOKING_CREATED, booking));
+    }
+    
+    /**
+     * Writes one booking_created event per booking with a single JDBC batch.
+     */
+    public void publishBookingsCreated(List<Booking> bookings) {
+        enqueueAll(bookings.stream().map(booking -> toEvent(EventType.BOOKING_CREATED, booking)).toList());
+    }
+    
+    /**
+     * Writes a booking_confirmed or booking_cancelled event, matching each booking's
+     * current status, with a single JDBC batch.
+     */
+    public void publishStatusChanges(List<Booking> bookings) {
+        enqueueAll(bookings.stream().map(booking -> toEvent(
+                booking.getStatus() == Booking.BookingStatus.CANCELLED
+                        ? EventType.BOOKING_CANCELLED : EventType.BOOKING_CONFIRMED, booking)).toList());
+    }
+    
+    public void publishBookingConfirmed(Booking booking) {
+        enqueue(toEvent(EventType.BOOKING_CONFIRMED, booking));
+    }
+    
+    public void publishBookingCancelled(Booking booking) {
+        enqueue(toEvent(EventType.BOOKING_CANCELLED, booking));
+    }
+    
+    private void enqueue(BookingEvent bookingEvent) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(TOPIC);
+        event.setEventKey(String.valueOf(bookingEvent.bookingId()));
+        event.setPayload(EventCodec.encode(bookingEvent));
+        outboxRepository.save(event);
     }
     
-    public void publishBookingConfirmed(Long bookingId) {
-        String message = String.format("{\"event\":\"booking_confirmed\",\"bookingId\":%d}", bookingId);
-        kafkaTemplate.send(TOPIC, message);
+    private void enqueueAll(List<BookingEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, events.size(), (ps, bookingEvent) -> {
+            ps.setString(1, TOPIC);
+            ps.setString(2, String.valueOf(bookingEvent.bookingId()));
+            ps.setBytes(3, EventCodec.encode(bookingEvent));
+            ps.setTimestamp(4, now);
+        });
     }
     
-    public void publishBookingCancelled(Long bookingId) {
-        String message = String.format("{\"event\":\"booking_cancelled\",\"bookingId\":%d}", bookingId);
-        kafkaTemplate.send(TOPIC, message);
+    // Every event carries the full booking state so consumers can project it without calling back
+    private BookingEvent toEvent(EventType type, Booking booking) {
+        return new BookingEvent(type, booking.getId(), booking.getVehicleId(), booking.getUserId(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus().name());
     }
 }
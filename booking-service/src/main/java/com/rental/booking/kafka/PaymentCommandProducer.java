@@ -0,0 +1,42 @@
+package com.rental.booking.kafka;
+
+import com.rental.events.EventCodec;
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes requests for payment-service to the outbox in the caller's transaction, keyed by
+ * booking id like the event topics.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class PaymentCommandProducer {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private static final String TOPIC = "payment-commands";
+    
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO outbox_events (topic, event_key, payload, created_at) VALUES (?, ?, ?, ?)";
+    
+    public void requestRefunds(List<PaymentEvent> payments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, payments, payments.size(), (ps, payment) -> {
+            ps.setString(1, TOPIC);
+            ps.setString(2, String.valueOf(payment.bookingId()));
+            ps.setBytes(3, EventCodec.encode(
+                    new PaymentEvent(EventType.PAYMENT_REFUND_REQUESTED, payment.paymentId(), payment.bookingId())));
+            ps.setTimestamp(4, now);
+        });
+    }
+}
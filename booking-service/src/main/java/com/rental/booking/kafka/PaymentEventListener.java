@@ -0,0 +1,57 @@
+package com.rental.booking.kafka;
+
+import com.rental.booking.entity.Booking;
+import com.rental.booking.service.BookingService;
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
+import com.rental.events.RentalEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Confirms a booking when its payment completes and cancels it when the payment fails
+ * or is refunded, so clients no longer have to call PUT /bookings/{id}/confirm. Each poll
+ * is applied as one bulk update in one transaction. A payment that completes after its
+ * booking was cancelled is sent back for a refund.
+ */
+@Service
+public class PaymentEventListener {
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @KafkaListener(topics = "payment-events", groupId = "booking-service", batch = "true")
+    public void handlePaymentEvents(List<ConsumerRecord<String, RentalEvent>> records) {
+        // Records arrive in order per booking, so the last outcome wins, except that a failed
+        // attempt never undoes a payment that completed earlier in the same poll
+        Map<Long, PaymentEvent> outcomes = new LinkedHashMap<>();
+        for (ConsumerRecord<String, RentalEvent> record : records) {
+            if (!(record.value() instanceof PaymentEvent event) || event.bookingId() == null) {
+                continue;
+            }
+            PaymentEvent earlier = outcomes.get(event.bookingId());
+            if (event.type() == EventType.PAYMENT_FAILED
+                    && earlier != null && earlier.type() == EventType.PAYMENT_COMPLETED) {
+                continue;
+            }
+            outcomes.put(event.bookingId(), event);
+        }
+        
+        try {
+            List<Booking> changed = bookingService.applyPaymentOutcomes(outcomes);
+            if (!changed.isEmpty()) {
+                System.out.println("Applied " + changed.size() + " payment outcomes to bookings");
+            }
+        } catch (RuntimeException e) {
+            // Rethrown so the container retries the whole poll; nothing was committed
+            System.err.println("Failed to apply " + outcomes.size() + " payment outcomes: " + e.getMessage());
+            throw e;
+        }
+    }
+}
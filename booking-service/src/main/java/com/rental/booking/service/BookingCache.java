@@ -0,0 +1,161 @@
+package com.rental.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rental.booking.entity.Booking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of bookings by id: a bounded in-process (L1) cache in front of
+ * Redis (L2) in front of Postgres. Writers overwrite both tiers after their transaction
+ * commits, while a reader that missed fills Redis only if the key is still absent, so a
+ * slow reader can never put back a state that a committed write already replaced.
+ * Other instances drop their L1 copy when the change arrives on booking-events.
+ */
+@Component
+public class BookingCache {
+    
+    private static final String KEY_PREFIX = "booking:";
+    
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${booking.cache.redis.ttl-seconds}")
+    private long redisTtlSeconds;
+    
+    private final Cache<Long, Booking> local;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    
+    public BookingCache(@Value("${booking.cache.l1.max-size}") long maxSize,
+                        @Value("${booking.cache.l1.ttl-seconds}") long ttlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "bookings.l1");
+        this.redisHits = meterRegistry.counter("bookings.cache.redis", "result", "hit");
+        this.redisMisses = meterRegistry.counter("bookings.cache.redis", "result", "miss");
+    }
+    
+    public Optional<Booking> get(Long bookingId, Supplier<Optional<Booking>> loader) {
+        Booking booking = local.get(bookingId, id -> readThrough(id, loader));
+        return Optional.ofNullable(booking).map(BookingCache::copy);
+    }
+    
+    /**
+     * Writes the bookings to both tiers once the surrounding transaction commits, or
+     * straight away when there is none.
+     */
+    public void putAfterCommit(List<Booking> bookings) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putAll(bookings);
+            return;
+        }
+        List<Booking> snapshot = bookings.stream().map(BookingCache::copy).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putAll(snapshot);
+            }
+        });
+    }
+    
+    public void putAll(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            local.put(booking.getId(), copy(booking));
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Booking booking : bookings) {
+                    connection.stringCommands().set(key(booking.getId()).getBytes(StandardCharsets.UTF_8),
+                            serialize(booking).getBytes(StandardCharsets.UTF_8),
+                            Expiration.seconds(redisTtlSeconds), RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // Drop whatever Redis holds so a stale copy can't outlive this write
+            System.err.println("Failed to write " + bookings.size() + " bookings to Redis: " + e.getMessage());
+            evict(bookings);
+        }
+    }
+    
+    public void evictLocal(Long bookingId) {
+        local.invalidate(bookingId);
+    }
+    
+    private void evict(List<Booking> bookings) {
+        try {
+            redisTemplate.delete(bookings.stream().map(booking -> key(booking.getId())).toList());
+        } catch (Exception e) {
+            System.err.println("Failed to evict bookings from Redis: " + e.getMessage());
+        }
+    }
+    
+    private Booking readThrough(Long bookingId, Supplier<Optional<Booking>> loader) {
+        String key = key(bookingId);
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                redisHits.increment();
+                return objectMapper.readValue(cached, Booking.class);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to read booking " + bookingId + " from Redis: " + e.getMessage());
+        }
+        redisMisses.increment();
+        
+        Booking booking = loader.get().map(BookingCache::copy).orElse(null);
+        if (booking != null) {
+            try {
+                redisTemplate.opsForValue().setIfAbsent(key, serialize(booking), redisTtlSeconds, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Failed to cache booking " + bookingId + " in Redis: " + e.getMessage());
+            }
+        }
+        return booking;
+    }
+    
+    private String serialize(Booking booking) {
+        try {
+            return objectMapper.writeValueAsString(booking);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String key(Long bookingId) {
+        return KEY_PREFIX + bookingId;
+    }
+    
+    // Callers get their own instance, so nothing they do can change the cached one
+    private static Booking copy(Booking booking) {
+        return new Booking(booking.getId(), booking.getVehicleId(), booking.getUserId(), booking.getStartDate(),
+                booking.getEndDate(), booking.getStatus(), booking.getTotalCost(), booking.getCreatedAt());
+    }
+}
@@ -0,0 +1,77 @@
+package com.rental.booking.service;
+
+import com.rental.booking.dto.BookingHistoryCriteria;
+import com.rental.booking.dto.BookingHistoryPage;
+import com.rental.booking.dto.BookingSummary;
+import com.rental.booking.entity.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Newest-first booking history for a user, paged by (created_at, id) so every page is
+ * an index range scan on idx_bookings_user_created_at however many bookings the user has.
+ */
+@Service
+public class BookingHistoryService {
+    
+    private static final RowMapper<BookingSummary> SUMMARY_ROW = (rs, rowNum) -> new BookingSummary(
+            rs.getLong("id"),
+            rs.getLong("vehicle_id"),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate(),
+            Booking.BookingStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("total_cost"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${booking.history.max-page-size}")
+    private int maxPageSize;
+    
+    public BookingHistoryPage getHistory(Long userId, BookingHistoryCriteria criteria) {
+        int size = Math.max(1, Math.min(criteria.getSize(), maxPageSize));
+        BookingCursor cursor = BookingCursor.decode(criteria.getCursor());
+        
+        StringBuilder sql = new StringBuilder("SELECT id, vehicle_id, start_date, end_date, status, total_cost, created_at " +
+                "FROM bookings WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (criteria.getStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(criteria.getStatus().name());
+        }
+        if (criteria.getFrom() != null) {
+            sql.append(" AND end_date >= ?");
+            args.add(Date.valueOf(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND start_date <= ?");
+            args.add(Date.valueOf(criteria.getTo()));
+        }
+        if (cursor != null) {
+            sql.append(" AND (created_at, id) < (?, ?)");
+            args.add(Timestamp.valueOf(cursor.createdAt));
+            args.add(cursor.id);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(size + 1);
+        
+        List<BookingSummary> rows = jdbcTemplate.query(sql.toString(), SUMMARY_ROW, args.toArray());
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            BookingSummary last = rows.get(size - 1);
+            nextCursor = new BookingCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new BookingHistoryPage(rows, nextCursor);
+    }
+}
@@ -0,0 +1,168 @@
+package com.rental.booking.service;
+
+import com.rental.booking.entity.Booking;
+import com.rental.booking.kafka.BookingEventProducer;
+import com.rental.booking.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Cancels PENDING bookings that were not confirmed within booking.hold.ttl-seconds so
+ * their dates go back on sale. Every instance tracks every pending booking in a timing
+ * wheel (fed at startup and by booking-events); when holds come due they are cancelled
+ * with a conditional UPDATE that skips locked rows, so with several instances each
+ * booking is cancelled, and its booking_cancelled event emitted, exactly once.
+ */
+@Service
+@DependsOn("bookingEventsStart")
+public class BookingHoldExpiryService {
+    
+    private static final long RETRY_DELAY_MS = 30_000;
+    
+    // Only rows still PENDING and past their hold are claimed; rows being confirmed right now are skipped
+    private static final String EXPIRE_BY_ID_SQL = "UPDATE bookings SET status = 'CANCELLED' WHERE id IN (" +
+            "SELECT id FROM bookings WHERE id = ANY (?) AND status = 'PENDING' AND created_at <= ? " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, vehicle_id, user_id, start_date, end_date, total_cost, created_at";
+    
+    private static final String EXPIRE_OLDEST_SQL = "UPDATE bookings SET status = 'CANCELLED' WHERE id IN (" +
+            "SELECT id FROM bookings WHERE status = 'PENDING' AND created_at <= ? " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, vehicle_id, user_id, start_date, end_date, total_cost, created_at";
+    
+    private static final RowMapper<Booking> CANCELLED_ROW = (rs, rowNum) -> new Booking(
+            rs.getLong("id"),
+            rs.getLong("vehicle_id"),
+            rs.getLong("user_id"),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate(),
+            Booking.BookingStatus.CANCELLED,
+            rs.getBigDecimal("total_cost"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookingEventProducer eventProducer;
+    
+    @Autowired
+    private ReservationLedger reservationLedger;
+    
+    @Autowired
+    private BookingCache bookingCache;
+    
+    @Value("${booking.hold.ttl-seconds}")
+    private long holdTtlSeconds;
+    
+    @Value("${booking.hold.batch-size}")
+    private int batchSize;
+    
+    private final HierarchicalTimingWheel wheel;
+    private final Counter expiredCounter;
+    
+    public BookingHoldExpiryService(@Value("${booking.hold.tick-ms}") long tickMillis, MeterRegistry meterRegistry) {
+        this.wheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis());
+        this.expiredCounter = meterRegistry.counter("booking.hold.expired");
+        meterRegistry.gauge("booking.hold.tracked", wheel, HierarchicalTimingWheel::size);
+    }
+    
+    @PostConstruct
+    public void load() {
+        List<Booking> pending = bookingRepository.findByStatusIn(List.of(Booking.BookingStatus.PENDING));
+        for (Booking booking : pending) {
+            LocalDateTime deadline = booking.getCreatedAt().plusSeconds(holdTtlSeconds);
+            wheel.schedule(booking.getId(), deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        System.out.println("Tracking " + pending.size() + " pending booking holds");
+    }
+    
+    /**
+     * Starts the hold clock for a booking seen on booking-events. The event has no creation
+     * time, so the hold is counted from now; the UPDATE checks the real created_at.
+     */
+    public void track(Long bookingId) {
+        wheel.schedule(bookingId, System.currentTimeMillis() + holdTtlSeconds * 1000);
+    }
+    
+    public void untrack(Long bookingId) {
+        wheel.cancel(bookingId);
+    }
+    
+    @Scheduled(fixedDelayString = "${booking.hold.tick-ms}")
+    public void expireDue() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expire(EXPIRE_BY_ID_SQL, ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", batch.toArray()));
+                    ps.setTimestamp(2, Timestamp.valueOf(holdCutoff()));
+                });
+            } catch (Exception e) {
+                System.err.println("Failed to expire " + batch.size() + " booking holds, retrying: " + e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+                batch.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+    
+    // Safety net for holds the wheel never saw, e.g. bookings created while this instance was starting
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms}", initialDelayString = "${booking.hold.sweep-interval-ms}")
+    public void sweep() {
+        try {
+            int expired;
+            do {
+                expired = expire(EXPIRE_OLDEST_SQL, ps -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(holdCutoff()));
+                    ps.setInt(2, batchSize);
+                });
+            } while (expired == batchSize);
+        } catch (Exception e) {
+            System.err.println("Booking hold sweep failed: " + e.getMessage());
+        }
+    }
+    
+    private int expire(String sql, PreparedStatementSetter setter) {
+        List<Booking> cancelled = transactionTemplate.execute(status -> {
+            List<Booking> rows = jdbcTemplate.query(sql, setter, CANCELLED_ROW);
+            rows.forEach(eventProducer::publishBookingCancelled);
+            return rows;
+        });
+        if (cancelled == null || cancelled.isEmpty()) {
+            return 0;
+        }
+        for (Booking booking : cancelled) {
+            reservationLedger.remove(booking.getId());
+        }
+        bookingCache.putAll(cancelled);
+        expiredCounter.increment(cancelled.size());
+        System.out.println("Expired " + cancelled.size() + " unconfirmed booking holds");
+        return cancelled.size();
+    }
+    
+    private LocalDateTime holdCutoff() {
+        return LocalDateTime.now().minusSeconds(holdTtlSeconds);
+    }
+}
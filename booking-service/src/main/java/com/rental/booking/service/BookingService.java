@@ -1,93 +1,358 @@
 package com.rental.booking.service;
 
+import com.rental.booking.dto.CreateBookingRequest;
 import com.rental.booking.entity.Booking;
 import com.rental.booking.kafka.BookingEventProducer;
+import com.rental.booking.kafka.PaymentCommandProducer;
 import com.rental.booking.repository.BookingRepository;
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
+import com.rental.events.id.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class BookingService {
     
+    private static final String INSERT_BOOKING_SQL = "INSERT INTO bookings " +
+            "(id, vehicle_id, user_id, start_date, end_date, status, total_cost, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Confirms only PENDING bookings; cancels PENDING ones, and CONFIRMED ones too when the payment was refunded.
+    // A plain UPDATE rather than SKIP LOCKED: if hold expiry holds the row, this waits and then re-checks its status.
+    private static final String APPLY_PAYMENT_OUTCOMES_SQL = "UPDATE bookings b SET status = t.status " +
+            "FROM unnest(?, ?, ?) AS t(id, status, from_confirmed) " +
+            "WHERE b.id = t.id AND (b.status = 'PENDING' OR (b.status = 'CONFIRMED' AND t.from_confirmed)) " +
+            "RETURNING b.id, b.vehicle_id, b.user_id, b.start_date, b.end_date, b.status, b.total_cost, b.created_at";
+    
+    // Of the given bookings, those that exist and are not CANCELLED
+    private static final String LIVE_BOOKING_IDS_SQL =
+            "SELECT id FROM bookings WHERE id = ANY(?) AND status <> 'CANCELLED'";
+    
+    private static final RowMapper<Booking> BOOKING_ROW = (rs, rowNum) -> new Booking(
+            rs.getLong("id"),
+            rs.getLong("vehicle_id"),
+            rs.getLong("user_id"),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate(),
+            Booking.BookingStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("total_cost"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+    
     @Autowired
     private BookingRepository bookingRepository;
     
     @Autowired
-    private RedisLockService redisLockService;
+    private ReservationLockService reservationLockService;
+    
+    @Autowired
+    private ReservationLedger reservationLedger;
     
     @Autowired
     private BookingEventProducer eventProducer;
     
-    @Transactional
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private BookingCache bookingCache;
+    
+    @Autowired
+    private PaymentCommandProducer commandProducer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${booking.batch.max-size}")
+    private int maxBatchSize;
+    
+    /**
+     * Not transactional itself: the reservation lock is taken (with its retry backoff)
+     * before the transaction opens, so no connection is held while waiting for it.
+     */
     public Booking createBooking(Long vehicleId, Long userId, 
                                   java.time.LocalDate startDate, 
                                   java.time.LocalDate endDate,
                                   BigDecimal dailyRate) {
-        // Temporarily disable Redis lock for MVP testing
-        // TODO: Re-enable and fix Redis lock logic for production
-        // Try to acquire lock (best effort)
-        try {
-            redisLockService.releaseLock(vehicleId); // Clear any old locks first
-            redisLockService.acquireLock(vehicleId);
-        } catch (Exception e) {
-            // Continue anyway for MVP
-            System.out.println("Redis lock warning: " + e.getMessage());
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
         }
         
-        long days = ChronoUnit.DAYS.between(startDate, endDate);
-        if (days <= 0) days = 1;
-        
-        BigDecimal totalCost = dailyRate.multiply(BigDecimal.valueOf(days));
-        
-        Booking booking = new Booking();
-        booking.setVehicleId(vehicleId);
-        booking.setUserId(userId);
-        booking.setStartDate(startDate);
-        booking.setEndDate(endDate);
-        booking.setStatus(Booking.BookingStatus.PENDING);
-        booking.setTotalCost(totalCost);
-        
-        booking = bookingRepository.save(booking);
+        ReservationLock lock = reservationLockService.tryAcquire(vehicleId, startDate, endDate);
+        if (lock == null) {
+            throw new IllegalStateException("Vehicle is being reserved for overlapping dates, please retry");
+        }
+        // Held until the booking row is committed (or rolled back) so no one else can slip in between
+        try {
+            return transactionTemplate.execute(status -> {
+                reservationLedger.assertFree(vehicleId, startDate, endDate);
+                reservationLockService.checkFence(lock);
+                
+                Booking booking = new Booking();
+                booking.setVehicleId(vehicleId);
+                booking.setUserId(userId);
+                booking.setStartDate(startDate);
+                booking.setEndDate(endDate);
+                booking.setStatus(Booking.BookingStatus.PENDING);
+                booking.setTotalCost(totalCost(dailyRate, startDate, endDate));
+                
+                Booking created = bookingRepository.save(booking);
+                // afterCommit runs before execute returns, so the ledger is updated before the lock is released
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        reservationLedger.add(created);
+                    }
+                });
+                bookingCache.putAfterCommit(List.of(created));
+                eventProducer.publishBookingCreated(created);
+                return created;
+            });
+        } finally {
+            reservationLockService.release(lock);
+        }
+    }
+    
+    /**
+     * Creates every booking in the request or none of them. All reservation locks are
+     * taken in one pipelined round trip, the rows are inserted with one JDBC batch and
+     * the booking_created events are written to the outbox with another. As in
+     * {@link #createBooking}, the locks are taken before the transaction opens.
+     */
+    public List<Booking> createBookings(List<CreateBookingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one booking is required");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " bookings can be created at once");
+        }
         
-        eventProducer.publishBookingCreated(booking.getId(), vehicleId, userId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (CreateBookingRequest request : requests) {
+            if (request.getVehicleId() == null || request.getUserId() == null || request.getStartDate() == null
+                    || request.getEndDate() == null || request.getDailyRate() == null) {
+                throw new IllegalArgumentException("Every booking needs vehicleId, userId, startDate, endDate and dailyRate");
+            }
+            if (request.getEndDate().isBefore(request.getStartDate())) {
+                throw new IllegalArgumentException("End date must not be before start date");
+            }
+            bookings.add(new Booking(null, request.getVehicleId(), request.getUserId(),
+                    request.getStartDate(), request.getEndDate(), Booking.BookingStatus.PENDING,
+                    totalCost(request.getDailyRate(), request.getStartDate(), request.getEndDate()), now));
+        }
+        rejectOverlapsWithinBatch(bookings);
         
-        return booking;
+        List<ReservationLock> locks = reservationLockService.tryAcquireAll(bookings);
+        if (locks == null) {
+            throw new IllegalStateException("Some vehicles are being reserved for overlapping dates, please retry");
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                for (Booking booking : bookings) {
+                    reservationLedger.assertFree(booking.getVehicleId(), booking.getStartDate(), booking.getEndDate());
+                }
+                reservationLockService.checkFences(locks);
+                
+                insertAll(bookings);
+                
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        bookings.forEach(reservationLedger::add);
+                    }
+                });
+                bookingCache.putAfterCommit(bookings);
+                eventProducer.publishBookingsCreated(bookings);
+                return bookings;
+            });
+        } finally {
+            reservationLockService.releaseAll(locks);
+        }
     }
     
     @Transactional
     public Booking confirmBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
+            throw new IllegalStateException("Booking " + bookingId + " was cancelled and can no longer be confirmed");
+        }
+        if (booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
+            // Already confirmed, e.g. from payment-events; don't publish a second event
+            return booking;
+        }
         
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         booking = bookingRepository.save(booking);
         
-        redisLockService.releaseLock(booking.getVehicleId());
-        eventProducer.publishBookingConfirmed(bookingId);
+        bookingCache.putAfterCommit(List.of(booking));
+        eventProducer.publishBookingConfirmed(booking);
         
         return booking;
     }
     
     @Transactional
     public void cancelBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
+            // Already cancelled, e.g. by hold expiry; don't publish a second event
+            return;
+        }
         
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         bookingRepository.save(booking);
         
-        redisLockService.releaseLock(booking.getVehicleId());
-        eventProducer.publishBookingCancelled(bookingId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reservationLedger.remove(bookingId);
+            }
+        });
+        bookingCache.putAfterCommit(List.of(booking));
+        eventProducer.publishBookingCancelled(booking);
+    }
+    
+    /**
+     * Applies the latest payment outcome per booking (payment_completed, payment_failed or
+     * payment_refunded) with one UPDATE, and writes a booking event for every booking whose
+     * status actually changed. Returns those bookings. A completed payment whose booking is
+     * already cancelled, e.g. because its hold expired first, gets a refund request.
+     */
+    @Transactional
+    public List<Booking> applyPaymentOutcomes(Map<Long, PaymentEvent> outcomes) {
+        if (outcomes.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = new Long[outcomes.size()];
+        String[] statuses = new String[outcomes.size()];
+        Boolean[] fromConfirmed = new Boolean[outcomes.size()];
+        int i = 0;
+        for (Map.Entry<Long, PaymentEvent> outcome : outcomes.entrySet()) {
+            EventType type = outcome.getValue().type();
+            ids[i] = outcome.getKey();
+            statuses[i] = (type == EventType.PAYMENT_COMPLETED
+                    ? Booking.BookingStatus.CONFIRMED : Booking.BookingStatus.CANCELLED).name();
+            fromConfirmed[i] = type == EventType.PAYMENT_REFUNDED;
+            i++;
+        }
+        
+        List<Booking> changed = jdbcTemplate.query(APPLY_PAYMENT_OUTCOMES_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", statuses));
+            ps.setArray(3, ps.getConnection().createArrayOf("boolean", fromConfirmed));
+        }, BOOKING_ROW);
+        refundOrphanedPayments(outcomes, changed);
+        if (changed.isEmpty()) {
+            return changed;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Booking booking : changed) {
+                    if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
+                        reservationLedger.remove(booking.getId());
+                    }
+                }
+            }
+        });
+        bookingCache.putAfterCommit(changed);
+        eventProducer.publishStatusChanges(changed);
+        
+        return changed;
+    }
+    
+    // Completed payments that confirmed nothing because their booking is cancelled or gone
+    private void refundOrphanedPayments(Map<Long, PaymentEvent> outcomes, List<Booking> changed) {
+        Set<Long> applied = new HashSet<>();
+        changed.forEach(booking -> applied.add(booking.getId()));
+        List<PaymentEvent> unapplied = outcomes.values().stream()
+                .filter(event -> event.type() == EventType.PAYMENT_COMPLETED && !applied.contains(event.bookingId()))
+                .toList();
+        if (unapplied.isEmpty()) {
+            return;
+        }
+        
+        Long[] bookingIds = unapplied.stream().map(PaymentEvent::bookingId).toArray(Long[]::new);
+        Set<Long> live = new HashSet<>(jdbcTemplate.query(LIVE_BOOKING_IDS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", bookingIds)),
+                (rs, rowNum) -> rs.getLong("id")));
+        List<PaymentEvent> orphaned = unapplied.stream().filter(event -> !live.contains(event.bookingId())).toList();
+        if (orphaned.isEmpty()) {
+            return;
+        }
+        for (PaymentEvent event : orphaned) {
+            System.err.println("Payment " + event.paymentId() + " completed for cancelled booking "
+                    + event.bookingId() + ", requesting a refund");
+        }
+        meterRegistry.counter("bookings.payment.orphaned").increment(orphaned.size());
+        commandProducer.requestRefunds(orphaned);
+    }
+    
+    private void insertAll(List<Booking> bookings) {
+        // Ids are assigned here, as @SnowflakeId does for JPA inserts
+        SnowflakeIdGenerator ids = SnowflakeIdGenerator.shared();
+        bookings.forEach(booking -> booking.setId(ids.nextId()));
+        jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, bookings, bookings.size(), (ps, booking) -> {
+            ps.setLong(1, booking.getId());
+            ps.setLong(2, booking.getVehicleId());
+            ps.setLong(3, booking.getUserId());
+            ps.setDate(4, Date.valueOf(booking.getStartDate()));
+            ps.setDate(5, Date.valueOf(booking.getEndDate()));
+            ps.setString(6, booking.getStatus().name());
+            ps.setBigDecimal(7, booking.getTotalCost());
+            ps.setTimestamp(8, Timestamp.valueOf(booking.getCreatedAt()));
+        });
+    }
+    
+    private static void rejectOverlapsWithinBatch(List<Booking> bookings) {
+        List<Booking> ordered = new ArrayList<>(bookings);
+        ordered.sort(Comparator.comparing(Booking::getVehicleId).thenComparing(Booking::getStartDate));
+        for (int i = 1; i < ordered.size(); i++) {
+            Booking previous = ordered.get(i - 1);
+            Booking current = ordered.get(i);
+            if (previous.getVehicleId().equals(current.getVehicleId())
+                    && !current.getStartDate().isAfter(previous.getEndDate())) {
+                throw new IllegalArgumentException("Vehicle " + current.getVehicleId()
+                        + " appears more than once for overlapping dates");
+            }
+        }
+    }
+    
+    private static BigDecimal totalCost(BigDecimal dailyRate, LocalDate startDate, LocalDate endDate) {
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        if (days <= 0) days = 1;
+        return dailyRate.multiply(BigDecimal.valueOf(days));
     }
     
     public Optional<Booking> getBooking(Long bookingId) {
-        return bookingRepository.findById(bookingId);
+        return bookingCache.get(bookingId, () -> bookingRepository.findById(bookingId));
     }
     
     public List<Booking> getUserBookings(Long userId) {
@@ -0,0 +1,116 @@
+package com.rental.booking.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of ids with deadlines. Level L has 64 slots of 64^L ticks
+ * each; an id sits in the lowest level whose higher digits it shares with the current
+ * tick and cascades down as time reaches its slot, so scheduling and expiry are O(1)
+ * regardless of how many ids are tracked. Cancelling is lazy: the id's deadline is
+ * dropped and stale slot entries are ignored when they come due.
+ */
+class HierarchicalTimingWheel {
+    
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+    
+    private record Entry(long id, long deadlineTick) {
+    }
+    
+    private final long tickMillis;
+    private final List<List<List<Entry>>> levels = new ArrayList<>(LEVELS);
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private final List<Long> overdue = new ArrayList<>();
+    private long currentTick;
+    
+    HierarchicalTimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<List<Entry>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+    }
+    
+    synchronized void schedule(long id, long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick);
+        deadlines.put(id, deadlineTick);
+        place(new Entry(id, deadlineTick));
+    }
+    
+    synchronized void cancel(long id) {
+        deadlines.remove(id);
+    }
+    
+    synchronized int size() {
+        return deadlines.size();
+    }
+    
+    /**
+     * Moves the wheel to {@code nowMillis} and returns every id whose deadline has passed.
+     */
+    synchronized List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Higher levels first, so entries cascading into this tick's lower slots are seen below
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    List<Entry> bucket = takeSlot(level);
+                    for (Entry entry : bucket) {
+                        if (isLive(entry)) {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            for (Entry entry : takeSlot(0)) {
+                if (isLive(entry)) {
+                    deadlines.remove(entry.id());
+                    expired.add(entry.id());
+                }
+            }
+        }
+        // Entries scheduled in the past, or cascaded onto the tick they are due
+        expired.addAll(overdue);
+        overdue.clear();
+        return expired;
+    }
+    
+    private void place(Entry entry) {
+        if (entry.deadlineTick() <= currentTick) {
+            deadlines.remove(entry.id());
+            overdue.add(entry.id());
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1
+                && (entry.deadlineTick() >>> (BITS * (level + 1))) != (currentTick >>> (BITS * (level + 1)))) {
+            level++;
+        }
+        // Beyond the top level's range the entry waits in its top-level slot and is re-placed when it comes round
+        int slot = (int) ((entry.deadlineTick() >>> (BITS * level)) & (SLOTS - 1));
+        levels.get(level).get(slot).add(entry);
+    }
+    
+    private List<Entry> takeSlot(int level) {
+        int slot = (int) ((currentTick >>> (BITS * level)) & (SLOTS - 1));
+        List<List<Entry>> slots = levels.get(level);
+        List<Entry> bucket = slots.get(slot);
+        slots.set(slot, new ArrayList<>());
+        return bucket;
+    }
+    
+    private boolean isLive(Entry entry) {
+        Long deadline = deadlines.get(entry.id());
+        return deadline != null && deadline == entry.deadlineTick();
+    }
+}
@@ -0,0 +1,89 @@
+package com.rental.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.common.idempotency.IdempotencyStore;
+import com.rental.common.idempotency.StoredResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Idempotency keys in Redis: claimed with SET NX, and only ever overwritten or deleted
+ * by a script that first checks the owner recorded in the value.
+ */
+@Component
+public class RedisIdempotencyStore implements IdempotencyStore {
+    
+    private static final String KEY_PREFIX = "idempotency:";
+    
+    // KEYS: key. ARGV: owner, response, ttl seconds. Stores the response if ARGV[1] still owns the key.
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "local value = redis.call('GET', KEYS[1]) " +
+            "if value and cjson.decode(value).owner == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) " +
+            "  return 1 " +
+            "end " +
+            "return 0", Long.class);
+    
+    // Compare-and-delete on the owner recorded in the value
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local value = redis.call('GET', KEYS[1]) " +
+            "if value and cjson.decode(value).owner == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+    
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public boolean claim(String key, String fingerprint, String owner, Duration inFlightTtl) {
+        String marker = write(new Entry(owner, StoredResponse.inFlight(fingerprint)));
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, marker, inFlightTtl));
+    }
+    
+    @Override
+    public StoredResponse find(String key) {
+        Entry entry = read(redisTemplate.opsForValue().get(KEY_PREFIX + key));
+        return entry == null ? null : entry.response();
+    }
+    
+    @Override
+    public boolean complete(String key, String owner, StoredResponse response, Duration ttl) {
+        Long stored = redisTemplate.execute(COMPLETE_SCRIPT, List.of(KEY_PREFIX + key),
+                owner, write(new Entry(owner, response)), String.valueOf(ttl.toSeconds()));
+        return stored != null && stored == 1;
+    }
+    
+    @Override
+    public void release(String key, String owner) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), owner);
+    }
+    
+    private String write(Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private Entry read(String value) {
+        try {
+            return value == null ? null : objectMapper.readValue(value, Entry.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    record Entry(String owner, StoredResponse response) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.rental.booking.service;
+
+import com.rental.booking.entity.Booking;
+import com.rental.booking.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-vehicle ordered ledger of PENDING and CONFIRMED reservations, used to reject
+ * overlapping bookings before they reach the database. Entries are ordered by
+ * (start date, booking id), so two bookings with the same start date both stay in the
+ * ledger. A conflict check scans back from the last entry starting on or before the
+ * requested end date, but only as far as the vehicle's longest booking could reach.
+ * Normally entries don't overlap, so this is a lookup or two. All access for a vehicle
+ * is serialized on one of a fixed set of striped locks. The booking-events listener
+ * replays from offsets captured before the warm-up load, hence the dependency.
+ */
+@Component
+@DependsOn("bookingEventsStart")
+public class ReservationLedger {
+    
+    public static final List<Booking.BookingStatus> ACTIVE_STATUSES =
+            List.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+    
+    private static final int STRIPES = 64;
+    
+    private record Reservation(Long bookingId, LocalDate startDate, LocalDate endDate) {
+    }
+    
+    private static final Comparator<Reservation> BY_START =
+            Comparator.comparing(Reservation::startDate).thenComparing(Reservation::bookingId);
+    
+    private static final class VehicleReservations {
+        final ConcurrentSkipListSet<Reservation> byStart = new ConcurrentSkipListSet<>(BY_START);
+        // Longest booking seen, in days; only grows, which just makes the scan a little longer
+        long maxLengthDays;
+    }
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    private final Map<Long, VehicleReservations> vehicles = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, Long> bookingVehicles = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    
+    public ReservationLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    @PostConstruct
+    public void warm() {
+        List<Booking> active = bookingRepository.findByStatusIn(ACTIVE_STATUSES);
+        for (Booking booking : active) {
+            add(booking);
+        }
+        System.out.println("Reservation ledger warmed with " + bookings.size() + " active bookings");
+    }
+    
+    /**
+     * Throws if [startDate, endDate] overlaps an active reservation of the vehicle.
+     */
+    public void assertFree(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        ReentrantLock lock = stripe(vehicleId);
+        lock.lock();
+        try {
+            Reservation conflict = findOverlap(vehicleId, startDate, endDate);
+            if (conflict != null) {
+                throw new IllegalStateException("Vehicle " + vehicleId + " is already booked from "
+                        + conflict.startDate() + " to " + conflict.endDate());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void add(Booking booking) {
+        ReentrantLock lock = stripe(booking.getVehicleId());
+        lock.lock();
+        try {
+            if (bookings.containsKey(booking.getId())) {
+                return;
+            }
+            Reservation conflict = findOverlap(booking.getVehicleId(), booking.getStartDate(), booking.getEndDate());
+            if (conflict != null) {
+                // The database already accepted this booking; keep both and surface the anomaly
+                System.err.println("Ledger overlap between bookings " + conflict.bookingId() + " and " + booking.getId());
+            }
+            Reservation reservation = new Reservation(booking.getId(), booking.getStartDate(), booking.getEndDate());
+            VehicleReservations timeline = vehicles.computeIfAbsent(booking.getVehicleId(), id -> new VehicleReservations());
+            timeline.byStart.add(reservation);
+            timeline.maxLengthDays = Math.max(timeline.maxLengthDays,
+                    ChronoUnit.DAYS.between(reservation.startDate(), reservation.endDate()));
+            bookings.put(booking.getId(), reservation);
+            bookingVehicles.put(booking.getId(), booking.getVehicleId());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void remove(Long bookingId) {
+        Long vehicleId = bookingVehicles.get(bookingId);
+        if (vehicleId == null) {
+            return;
+        }
+        ReentrantLock lock = stripe(vehicleId);
+        lock.lock();
+        try {
+            Reservation reservation = bookings.remove(bookingId);
+            bookingVehicles.remove(bookingId);
+            if (reservation == null) {
+                return;
+            }
+            VehicleReservations timeline = vehicles.get(vehicleId);
+            if (timeline != null) {
+                timeline.byStart.remove(reservation);
+                if (timeline.byStart.isEmpty()) {
+                    vehicles.remove(vehicleId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private Reservation findOverlap(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        VehicleReservations timeline = vehicles.get(vehicleId);
+        if (timeline == null) {
+            return null;
+        }
+        // Anything starting before this can't reach startDate, however long the vehicle's bookings are
+        LocalDate earliestStart = startDate.minusDays(timeline.maxLengthDays);
+        Reservation last = new Reservation(Long.MAX_VALUE, endDate, endDate);
+        for (Reservation candidate : timeline.byStart.headSet(last, true).descendingSet()) {
+            if (candidate.startDate().isBefore(earliestStart)) {
+                break;
+            }
+            if (!candidate.endDate().isBefore(startDate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    private ReentrantLock stripe(Long vehicleId) {
+        return stripes[Math.floorMod(vehicleId.hashCode(), STRIPES)];
+    }
+}
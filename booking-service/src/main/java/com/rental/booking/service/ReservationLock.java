@@ -0,0 +1,18 @@
+package com.rental.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ReservationLock {
+    private final Long vehicleId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final List<String> keys;
+    private final String owner;
+    private final long fencingToken;
+}
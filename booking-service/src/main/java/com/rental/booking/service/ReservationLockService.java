@@ -0,0 +1,336 @@
+package com.rental.booking.service;
+
+import com.rental.booking.entity.Booking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation locks keyed on (vehicle, day). A booking locks every day of its range
+ * atomically, so bookings of the same vehicle for different dates never contend.
+ * Each acquisition carries a per-vehicle fencing token that the database write checks.
+ * The token counter lives in Redis but the high-water marks live in reservation_fences,
+ * so a missing counter (restart, eviction, FLUSHALL) is re-seeded from the table first,
+ * and a counter that fell behind it (failover to a lagging replica) is raised when a
+ * fence check fails.
+ */
+@Service
+public class ReservationLockService {
+    
+    // KEYS: day keys..., fence counter. ARGV: owner, ttl millis.
+    // Returns the fencing token, 0 if any day is held or -1 if the counter has to be seeded first.
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[#KEYS]) == 0 then return -1 end " +
+            "local n = #KEYS - 1 " +
+            "for i = 1, n do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then return 0 end " +
+            "end " +
+            "local token = redis.call('INCR', KEYS[#KEYS]) " +
+            "for i = 1, n do " +
+            "  redis.call('SET', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+            "end " +
+            "return token", Long.class);
+    
+    // Compare-and-delete: only removes keys still owned by ARGV[1]
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local released = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('GET', KEYS[i]) == ARGV[1] then " +
+            "    redis.call('DEL', KEYS[i]) " +
+            "    released = released + 1 " +
+            "  end " +
+            "end " +
+            "return released", Long.class);
+    
+    // KEYS: fence counter. ARGV: floor. Only ever moves the counter up.
+    private static final RedisScript<Long> RAISE_COUNTER_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "local floor = tonumber(ARGV[1]) " +
+            "if not current or tonumber(current) < floor then redis.call('SET', KEYS[1], floor) return floor end " +
+            "return tonumber(current)", Long.class);
+    
+    private static final String MAX_TOKEN_SQL =
+            "SELECT COALESCE(MAX(token), 0) FROM reservation_fences WHERE vehicle_id = ?";
+    
+    // Yesterday is kept so a booking written around midnight in another time zone is still fenced
+    private static final String PURGE_FENCES_SQL = "DELETE FROM reservation_fences WHERE day < CURRENT_DATE - 1";
+    
+    private static final String FENCE_SQL = "INSERT INTO reservation_fences (vehicle_id, day, token) VALUES (?, ?, ?) " +
+            "ON CONFLICT (vehicle_id, day) DO UPDATE SET token = EXCLUDED.token " +
+            "WHERE reservation_fences.token < EXCLUDED.token";
+    
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${reservation.lock.ttl-seconds}")
+    private long lockTtlSeconds;
+    
+    @Value("${reservation.lock.max-wait-ms}")
+    private long maxWaitMillis;
+    
+    private final Timer acquireTimer;
+    private final Counter acquiredCounter;
+    private final Counter contendedCounter;
+    private final Counter staleFenceCounter;
+    
+    public ReservationLockService(MeterRegistry meterRegistry) {
+        this.acquireTimer = Timer.builder("reservation.lock.acquire")
+                .description("Time spent acquiring reservation locks")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.acquiredCounter = meterRegistry.counter("reservation.lock.acquired");
+        this.contendedCounter = meterRegistry.counter("reservation.lock.contended");
+        this.staleFenceCounter = meterRegistry.counter("reservation.lock.stale_fence");
+    }
+    
+    public static String dayKey(Long vehicleId, LocalDate day) {
+        // Hash tag keeps all keys of one vehicle in the same cluster slot for the Lua scripts
+        return "reservation:lock:{" + vehicleId + "}:" + day;
+    }
+    
+    private static List<String> dayKeys(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            keys.add(dayKey(vehicleId, day));
+        }
+        return keys;
+    }
+    
+    private static String fenceKey(Long vehicleId) {
+        return "reservation:fence:{" + vehicleId + "}";
+    }
+    
+    /**
+     * Tries to lock every day of [startDate, endDate], retrying briefly while another
+     * reservation holds an overlapping day. Returns null if the range stays contended.
+     */
+    public ReservationLock tryAcquire(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        List<String> keys = dayKeys(vehicleId, startDate, endDate);
+        List<String> scriptKeys = new ArrayList<>(keys);
+        scriptKeys.add(fenceKey(vehicleId));
+        String owner = UUID.randomUUID().toString();
+        
+        long started = System.nanoTime();
+        long deadline = started + maxWaitMillis * 1_000_000L;
+        long backoff = 5;
+        boolean contended = false;
+        try {
+            while (true) {
+                Long token = redisTemplate.execute(ACQUIRE_SCRIPT, scriptKeys,
+                        owner, String.valueOf(lockTtlSeconds * 1000));
+                if (token != null && token > 0) {
+                    acquiredCounter.increment();
+                    return new ReservationLock(vehicleId, startDate, endDate, keys, owner, token);
+                }
+                if (token != null && token < 0) {
+                    raiseFenceCounter(vehicleId);
+                    continue;
+                }
+                if (!contended) {
+                    contendedCounter.increment();
+                    contended = true;
+                }
+                if (System.nanoTime() + backoff * 1_000_000L > deadline) {
+                    return null;
+                }
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            acquireTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * All-or-nothing variant of {@link #tryAcquire} for a batch of reservations. Every
+     * range is attempted in one pipelined round trip, in (vehicle, start date) order; if
+     * any range is held, the ranges that were taken are released and the whole batch is
+     * retried until max-wait. Returns the locks in that order, or null if still contended.
+     */
+    public List<ReservationLock> tryAcquireAll(List<Booking> reservations) {
+        List<Booking> ordered = new ArrayList<>(reservations);
+        ordered.sort(Comparator.comparing(Booking::getVehicleId).thenComparing(Booking::getStartDate));
+        String owner = UUID.randomUUID().toString();
+        byte[] script = ACQUIRE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] ttl = String.valueOf(lockTtlSeconds * 1000).getBytes(StandardCharsets.UTF_8);
+        
+        List<List<String>> keysPerRange = new ArrayList<>(ordered.size());
+        for (Booking reservation : ordered) {
+            keysPerRange.add(dayKeys(reservation.getVehicleId(), reservation.getStartDate(), reservation.getEndDate()));
+        }
+        
+        long started = System.nanoTime();
+        long deadline = started + maxWaitMillis * 1_000_000L;
+        long backoff = 5;
+        boolean contended = false;
+        try {
+            while (true) {
+                List<Object> tokens = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = 0; i < ordered.size(); i++) {
+                        List<String> keys = keysPerRange.get(i);
+                        byte[][] keysAndArgs = new byte[keys.size() + 3][];
+                        for (int k = 0; k < keys.size(); k++) {
+                            keysAndArgs[k] = keys.get(k).getBytes(StandardCharsets.UTF_8);
+                        }
+                        keysAndArgs[keys.size()] = fenceKey(ordered.get(i).getVehicleId()).getBytes(StandardCharsets.UTF_8);
+                        keysAndArgs[keys.size() + 1] = owner.getBytes(StandardCharsets.UTF_8);
+                        keysAndArgs[keys.size() + 2] = ttl;
+                        connection.scriptingCommands().eval(script, ReturnType.INTEGER, keys.size() + 1, keysAndArgs);
+                    }
+                    return null;
+                });
+                
+                List<ReservationLock> locks = new ArrayList<>(ordered.size());
+                Set<Long> unseeded = new HashSet<>();
+                for (int i = 0; i < ordered.size(); i++) {
+                    Object token = tokens.get(i);
+                    Booking reservation = ordered.get(i);
+                    if (token instanceof Long fencingToken && fencingToken > 0) {
+                        locks.add(new ReservationLock(reservation.getVehicleId(), reservation.getStartDate(),
+                                reservation.getEndDate(), keysPerRange.get(i), owner, fencingToken));
+                    } else if (token instanceof Long fencingToken && fencingToken < 0) {
+                        unseeded.add(reservation.getVehicleId());
+                    }
+                }
+                if (locks.size() == ordered.size()) {
+                    acquiredCounter.increment(locks.size());
+                    return locks;
+                }
+                
+                releaseAll(locks);
+                if (!unseeded.isEmpty()) {
+                    unseeded.forEach(this::raiseFenceCounter);
+                    continue;
+                }
+                if (!contended) {
+                    contendedCounter.increment();
+                    contended = true;
+                }
+                if (System.nanoTime() + backoff * 1_000_000L > deadline) {
+                    return null;
+                }
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            acquireTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Records the lock's fencing token for each reserved day in the current transaction.
+     * Fails if a newer token has already written any of those days, i.e. our lock expired
+     * and someone else reserved the same dates in the meantime.
+     */
+    public void checkFence(ReservationLock lock) {
+        checkFences(List.of(lock));
+    }
+    
+    /**
+     * {@link #checkFence} for several locks in one JDBC batch.
+     */
+    public void checkFences(List<ReservationLock> locks) {
+        List<Object[]> fences = new ArrayList<>();
+        for (ReservationLock lock : locks) {
+            for (LocalDate day = lock.getStartDate(); !day.isAfter(lock.getEndDate()); day = day.plusDays(1)) {
+                fences.add(new Object[]{lock.getVehicleId(), day, lock.getFencingToken()});
+            }
+        }
+        int[][] results = jdbcTemplate.batchUpdate(FENCE_SQL, fences, fences.size(), (ps, fence) -> {
+            ps.setLong(1, (Long) fence[0]);
+            ps.setDate(2, Date.valueOf((LocalDate) fence[1]));
+            ps.setLong(3, (Long) fence[2]);
+        });
+        int index = 0;
+        for (int[] batch : results) {
+            for (int updated : batch) {
+                if (updated == 0) {
+                    staleFenceCounter.increment();
+                    // Either our lock expired or the Redis counter fell behind the table; in the
+                    // second case this lets the next attempt succeed instead of failing forever
+                    raiseFenceCounter((Long) fences.get(index)[0]);
+                    throw new IllegalStateException("Reservation lock expired before the booking was written");
+                }
+                index++;
+            }
+        }
+    }
+    
+    /**
+     * Moves the vehicle's Redis token counter up to the highest token recorded in
+     * reservation_fences, creating it if it is missing.
+     */
+    void raiseFenceCounter(Long vehicleId) {
+        Long floor = jdbcTemplate.queryForObject(MAX_TOKEN_SQL, Long.class, vehicleId);
+        redisTemplate.execute(RAISE_COUNTER_SCRIPT, List.of(fenceKey(vehicleId)), String.valueOf(floor));
+    }
+    
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void purgePastFences() {
+        int purged = jdbcTemplate.update(PURGE_FENCES_SQL);
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " reservation fences for past days");
+        }
+    }
+    
+    public void releaseAll(List<ReservationLock> locks) {
+        if (locks.isEmpty()) {
+            return;
+        }
+        byte[] script = RELEASE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (ReservationLock lock : locks) {
+                    byte[][] keysAndArgs = new byte[lock.getKeys().size() + 1][];
+                    for (int k = 0; k < lock.getKeys().size(); k++) {
+                        keysAndArgs[k] = lock.getKeys().get(k).getBytes(StandardCharsets.UTF_8);
+                    }
+                    keysAndArgs[lock.getKeys().size()] = lock.getOwner().getBytes(StandardCharsets.UTF_8);
+                    connection.scriptingCommands().eval(script, ReturnType.INTEGER, lock.getKeys().size(), keysAndArgs);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to release reservation locks: " + e.getMessage());
+        }
+    }
+    
+    public void release(ReservationLock lock) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, lock.getKeys(), lock.getOwner());
+        } catch (Exception e) {
+            // The keys expire on their own; a failed release only delays other reservations
+            System.err.println("Failed to release reservation lock: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.rental.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCursorTest {
+    
+    @Test
+    void roundTrips() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_456_789);
+        
+        BookingCursor decoded = BookingCursor.decode(new BookingCursor(createdAt, 7_312_845_116_817_408L).encode());
+        
+        assertEquals(createdAt, decoded.createdAt);
+        assertEquals(7_312_845_116_817_408L, decoded.id);
+    }
+    
+    @Test
+    void roundTripsWholeMinutes() {
+        // LocalDateTime.toString leaves out zero seconds
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 10, 15);
+        
+        assertEquals(createdAt, BookingCursor.decode(new BookingCursor(createdAt, 1L).encode()).createdAt);
+    }
+    
+    @Test
+    void encodingIsUrlSafe() {
+        String cursor = new BookingCursor(LocalDateTime.of(2026, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+        
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+    
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(BookingCursor.decode(null));
+        assertNull(BookingCursor.decode(""));
+        assertNull(BookingCursor.decode("   "));
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(encode("2026-03-01T10:15")));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(encode("2026-03-01T10:15|1|2")));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(encode("yesterday|1")));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(encode("2026-03-01T10:15|abc")));
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
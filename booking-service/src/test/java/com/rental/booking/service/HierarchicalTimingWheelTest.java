@@ -0,0 +1,96 @@
+package com.rental.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+    
+    // One tick per milli keeps deadlines and ticks the same numbers
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long HORIZON = 64L * 64 * 64 * 64;
+    
+    @Test
+    void expiresOnItsTickAndNotBefore() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0);
+        wheel.schedule(1, 5);
+        
+        assertEquals(List.of(), wheel.advance(4));
+        assertEquals(List.of(1L), wheel.advance(5));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void cascadesDownFromHigherLevels() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0);
+        long inLevel1 = 3 * LEVEL_1 + 5;
+        long inLevel2 = 2 * LEVEL_2 + 7 * LEVEL_1 + 9;
+        wheel.schedule(1, inLevel1);
+        wheel.schedule(2, inLevel2);
+        
+        for (long now = 1; now <= inLevel2; now++) {
+            List<Long> expired = wheel.advance(now);
+            if (now == inLevel1) {
+                assertEquals(List.of(1L), expired);
+            } else if (now == inLevel2) {
+                assertEquals(List.of(2L), expired);
+            } else {
+                assertEquals(List.of(), expired, "nothing is due at tick " + now);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void expiresEveryIdWhenAdvancingSeveralTicksAtOnce() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0);
+        wheel.schedule(1, 10);
+        wheel.schedule(2, LEVEL_1 + 1);
+        wheel.schedule(3, LEVEL_2 + 1);
+        
+        List<Long> expired = wheel.advance(LEVEL_2 + 1);
+        
+        assertEquals(List.of(1L, 2L, 3L), expired);
+    }
+    
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 1_000);
+        wheel.schedule(1, 400);
+        wheel.schedule(2, 1_000);
+        assertEquals(0, wheel.size());
+        
+        assertEquals(List.of(1L, 2L), wheel.advance(1_000));
+        assertEquals(List.of(), wheel.advance(1_001));
+    }
+    
+    @Test
+    void deadlineBeyondTheHorizonIsReplacedUntilItIsDue() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0);
+        long deadline = 2 * HORIZON + 5;
+        wheel.schedule(1, deadline);
+        
+        // Its top-level slot comes round at HORIZON and 2 * HORIZON before the deadline is reached
+        assertEquals(List.of(), wheel.advance(HORIZON));
+        assertEquals(List.of(), wheel.advance(2 * HORIZON));
+        assertEquals(List.of(), wheel.advance(deadline - 1));
+        assertEquals(List.of(1L), wheel.advance(deadline));
+    }
+    
+    @Test
+    void cancelledAndRescheduledIdsIgnoreTheirOldSlot() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, 0);
+        wheel.schedule(1, 10);
+        wheel.schedule(2, 10);
+        wheel.cancel(1);
+        wheel.schedule(2, LEVEL_1 + 3);
+        
+        assertEquals(List.of(), wheel.advance(10));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(2L), wheel.advance(LEVEL_1 + 3));
+        assertEquals(0, wheel.size());
+    }
+}
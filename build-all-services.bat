@@ -12,6 +12,29 @@ set FAILED=0
 REM Set Maven memory options to prevent out of memory errors
 set MAVEN_OPTS=-Xms256m -Xmx1024m -XX:MetaspaceSize=128m -XX:MaxMetaspaceSize=512m
 
+echo.
+echo ========================================
+echo Installing shared modules...
+echo ========================================
+cd rental-events
+call mvn clean install -DskipTests
+if %errorlevel% neq 0 (
+    echo [FAIL] rental-events build failed - services depend on it
+    cd ..
+    pause
+    exit /b 1
+)
+cd ..
+cd rental-common
+call mvn clean install -DskipTests
+if %errorlevel% neq 0 (
+    echo [FAIL] rental-common build failed - services depend on it
+    cd ..
+    pause
+    exit /b 1
+)
+cd ..
+
 echo.
 echo ========================================
 echo Building API Gateway...
@@ -66,12 +66,8 @@ const Payment = () => {
         paymentMethod,
       });
 
-      toast.success('Payment successful!');
-
-      // Confirm booking after successful payment
-      await bookingService.confirmBooking(parseInt(bookingId));
-
-      toast.success('Booking confirmed!');
+      // The charge completes asynchronously; booking-service confirms the booking on payment_completed
+      toast.success('Payment submitted! Your booking will be confirmed shortly.');
       navigate('/my-bookings');
     } catch (error) {
       toast.error(
@@ -1,7 +1,6 @@
 package com.rental.notification.kafka;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.events.BookingEvent;
 import com.rental.notification.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -13,34 +12,30 @@ public class BookingEventListener {
     @Autowired
     private NotificationService notificationService;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     @KafkaListener(topics = "booking-events", groupId = "notification-service")
-    public void handleBookingEvent(String message) {
+    public void handleBookingEvent(BookingEvent event) {
         try {
-            JsonNode event = objectMapper.readTree(message);
-            String eventType = event.get("event").asText();
-            Long userId = event.get("userId").asLong();
-            Long bookingId = event.get("bookingId").asLong();
+            Long userId = event.userId();
+            Long bookingId = event.bookingId();
             
             String notificationMessage = "";
             
-            switch (eventType) {
-                case "booking_created":
-                    Long vehicleId = event.get("vehicleId").asLong();
-                    notificationMessage = "Booking created for vehicle " + vehicleId;
+            switch (event.type()) {
+                case BOOKING_CREATED:
+                    notificationMessage = "Booking created for vehicle " + event.vehicleId();
                     break;
-                case "booking_confirmed":
+                case BOOKING_CONFIRMED:
                     notificationMessage = "Booking " + bookingId + " confirmed";
                     break;
-                case "booking_cancelled":
+                case BOOKING_CANCELLED:
                     notificationMessage = "Booking " + bookingId + " cancelled";
                     break;
+                default:
+                    break;
             }
             
             if (!notificationMessage.isEmpty()) {
-                notificationService.createNotification(userId, eventType, notificationMessage);
+                notificationService.createNotification(userId, event.type().getEventName(), notificationMessage);
             }
         } catch (Exception e) {
             System.err.println("Failed to process booking event: " + e.getMessage());
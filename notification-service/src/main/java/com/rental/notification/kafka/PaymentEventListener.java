@@ -1,7 +1,6 @@
 package com.rental.notification.kafka;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.events.PaymentEvent;
 import com.rental.notification.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -13,16 +12,10 @@ public class PaymentEventListener {
     @Autowired
     private NotificationService notificationService;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     @KafkaListener(topics = "payment-events", groupId = "notification-service")
-    public void handlePaymentEvent(String message) {
+    public void handlePaymentEvent(PaymentEvent event) {
         try {
-            JsonNode event = objectMapper.readTree(message);
-            String eventType = event.get("event").asText();
-            Long bookingId = event.get("bookingId").asLong();
-            Long paymentId = event.get("paymentId").asLong();
+            Long bookingId = event.bookingId();
             
             // Note: In a real system, we'd fetch the booking to get userId
             // For MVP, using bookingId as userId for demonstration
@@ -30,20 +23,22 @@ public class PaymentEventListener {
             
             String notificationMessage = "";
             
-            switch (eventType) {
-                case "payment_completed":
+            switch (event.type()) {
+                case PAYMENT_COMPLETED:
                     notificationMessage = "Payment successful for booking " + bookingId;
                     break;
-                case "payment_failed":
+                case PAYMENT_FAILED:
                     notificationMessage = "Payment failed for booking " + bookingId;
                     break;
-                case "payment_refunded":
+                case PAYMENT_REFUNDED:
                     notificationMessage = "Payment refunded for booking " + bookingId;
                     break;
+                default:
+                    break;
             }
             
             if (!notificationMessage.isEmpty()) {
-                notificationService.createNotification(userId, eventType, notificationMessage);
+                notificationService.createNotification(userId, event.type().getEventName(), notificationMessage);
             }
         } catch (Exception e) {
             System.err.println("Failed to process payment event: " + e.getMessage());
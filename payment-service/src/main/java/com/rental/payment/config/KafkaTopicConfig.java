@@ -0,0 +1,33 @@
+package com.rental.payment.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Provisions payment-events, which is keyed by booking id like booking-events, and
+ * payment-commands, where other services ask for payment actions such as refunds.
+ */
+@Configuration
+public class KafkaTopicConfig {
+    
+    @Bean
+    public NewTopic paymentEventsTopic(@Value("${kafka.topics.partitions}") int partitions,
+                                       @Value("${kafka.topics.replicas}") short replicas) {
+        return TopicBuilder.name("payment-events")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+    
+    @Bean
+    public NewTopic paymentCommandsTopic(@Value("${kafka.topics.partitions}") int partitions,
+                                         @Value("${kafka.topics.replicas}") short replicas) {
+        return TopicBuilder.name("payment-commands")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+}
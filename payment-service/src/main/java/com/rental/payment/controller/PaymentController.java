@@ -1,13 +1,23 @@
 package com.rental.payment.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.common.idempotency.IdempotencyService;
+import com.rental.payment.dto.PaymentExportCriteria;
 import com.rental.payment.dto.ProcessPaymentRequest;
 import com.rental.payment.entity.Payment;
+import com.rental.payment.service.PaymentExportService;
 import com.rental.payment.service.PaymentService;
+import com.rental.payment.service.PaymentSettlementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,15 +30,34 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private PaymentExportService exportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PaymentSettlementService settlementService;
+    
     @PostMapping
-    public ResponseEntity<?> processPayment(@RequestBody ProcessPaymentRequest request) {
+    public ResponseEntity<?> processPayment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody ProcessPaymentRequest request) {
+        return idempotencyService.execute("payments", idempotencyKey, request, () -> doProcessPayment(request));
+    }
+    
+    private ResponseEntity<?> doProcessPayment(ProcessPaymentRequest request) {
         try {
             Payment payment = paymentService.processPayment(
                     request.getBookingId(),
                     request.getAmount(),
                     request.getPaymentMethod()
             );
-            return ResponseEntity.status(HttpStatus.CREATED).body(payment);
+            // Accepted as PENDING; the gateway outcome arrives as payment_completed or payment_failed
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(payment);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -60,4 +89,31 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
     }
+    
+    // Declared as StreamingResponseBody, even for errors, so Spring MVC streams the body asynchronously
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(PaymentExportCriteria criteria) {
+        PaymentExportService.Format format;
+        try {
+            format = exportService.validate(criteria);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        StreamingResponseBody body = out -> exportService.export(criteria, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payments." + format.getExtension())
+                .body(body);
+    }
+    
+    @GetMapping("/settlements")
+    public ResponseEntity<?> getSettlements(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(settlementService.getSettlements(from, to));
+    }
 }
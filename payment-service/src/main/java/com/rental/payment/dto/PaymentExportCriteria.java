@@ -0,0 +1,23 @@
+package com.rental.payment.dto;
+
+import com.rental.payment.entity.Payment;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class PaymentExportCriteria {
+    
+    // Payments created on or after from and on or before to
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    
+    private Payment.PaymentStatus status;
+    
+    // csv or jsonl
+    private String format = "csv";
+}
@@ -0,0 +1,43 @@
+package com.rental.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claimed Idempotency-Key. Until {@code completed} is set the row only marks the
+ * request as in flight; afterwards it holds the response to replay.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+    
+    // The claim that wrote this row; completing or releasing checks it
+    private String owner;
+    
+    @Column(nullable = false)
+    private String fingerprint;
+    
+    @Column(nullable = false)
+    private boolean completed;
+    
+    private int responseStatus;
+    
+    @Column(columnDefinition = "text")
+    private String responseBody;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
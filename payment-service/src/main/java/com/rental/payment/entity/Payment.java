@@ -1,5 +1,7 @@
 package com.rental.payment.entity;
 
+import com.rental.events.id.SnowflakeId;
+import com.rental.events.id.SnowflakeIdGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -7,17 +9,19 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_payments_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
     
     @Column(nullable = false)
@@ -39,11 +43,15 @@ public class Payment {
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
+    // Until then the charge belongs to the instance that last submitted it; see PaymentService
+    private LocalDateTime chargeClaimedUntil;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (transactionId == null) {
-            transactionId = "TXN-" + UUID.randomUUID().toString();
+            // Time-ordered, so new keys append to the unique index instead of splitting random pages
+            transactionId = "TXN-" + SnowflakeIdGenerator.shared().nextKey();
         }
     }
     
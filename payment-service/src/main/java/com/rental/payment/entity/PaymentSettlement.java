@@ -0,0 +1,47 @@
+package com.rental.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Count and total of the payments created on one day, per payment method and status.
+ */
+@Entity
+@Table(name = "payment_settlements", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_settlements_day",
+                columnNames = {"settlement_date", "payment_method", "status"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSettlement {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate settlementDate;
+    
+    @Column(nullable = false)
+    private String paymentMethod;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.PaymentStatus status;
+    
+    @Column(nullable = false)
+    private long paymentCount;
+    
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+    
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
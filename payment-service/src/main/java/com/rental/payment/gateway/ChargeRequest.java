@@ -0,0 +1,9 @@
+package com.rental.payment.gateway;
+
+import java.math.BigDecimal;
+
+public record ChargeRequest(Long paymentId,
+                            String transactionId,
+                            BigDecimal amount,
+                            String paymentMethod) {
+}
@@ -0,0 +1,17 @@
+package com.rental.payment.gateway;
+
+/**
+ * Outcome of one charge. {@code reason} explains a decline and is null on approval.
+ */
+public record GatewayResult(Long paymentId,
+                            boolean approved,
+                            String reason) {
+    
+    public static GatewayResult approved(Long paymentId) {
+        return new GatewayResult(paymentId, true, null);
+    }
+    
+    public static GatewayResult declined(Long paymentId, String reason) {
+        return new GatewayResult(paymentId, false, reason);
+    }
+}
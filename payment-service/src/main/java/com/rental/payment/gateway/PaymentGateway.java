@@ -0,0 +1,14 @@
+package com.rental.payment.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment provider. Implementations must not block the caller: the charge is started
+ * and its outcome delivered through the returned future. {@link ChargeRequest#transactionId()}
+ * is stable across retries of the same payment and should be passed to the provider as its
+ * idempotency key.
+ */
+public interface PaymentGateway {
+    
+    CompletableFuture<GatewayResult> charge(ChargeRequest request);
+}
@@ -0,0 +1,136 @@
+package com.rental.payment.gateway;
+
+import com.rental.payment.service.PaymentCompletionWorker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls the {@link PaymentGateway} with at most {@code max-in-flight} charges outstanding.
+ * Charges beyond that wait in a bounded queue; when the queue is full the charge is refused
+ * and the payment stays PENDING until {@code PaymentService} resubmits it. Approvals and
+ * declines are handed to {@link PaymentCompletionWorker}, so no request or database thread
+ * ever waits on the gateway. A timeout or transport error says nothing about whether the
+ * provider charged the card, so it produces no outcome: the payment stays PENDING and is
+ * resubmitted under the same transaction id, which the provider answers without charging twice.
+ */
+@Component
+public class PaymentGatewayClient {
+    
+    @Autowired
+    private PaymentGateway gateway;
+    
+    @Autowired
+    private PaymentCompletionWorker completionWorker;
+    
+    @Value("${payment.gateway.timeout-ms}")
+    private long timeoutMillis;
+    
+    private final Semaphore permits;
+    private final BlockingQueue<ChargeRequest> waiting;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter approvedCounter;
+    private final Counter declinedCounter;
+    private final Counter timedOutCounter;
+    private final Counter erroredCounter;
+    private final Counter rejectedCounter;
+    
+    public PaymentGatewayClient(@Value("${payment.gateway.max-in-flight}") int maxInFlight,
+                                @Value("${payment.gateway.queue-capacity}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxInFlight);
+        this.waiting = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("payment.gateway.in_flight", permits, p -> maxInFlight - p.availablePermits());
+        meterRegistry.gauge("payment.gateway.queued", waiting, BlockingQueue::size);
+        this.approvedCounter = meterRegistry.counter("payment.gateway.result", "outcome", "approved");
+        this.declinedCounter = meterRegistry.counter("payment.gateway.result", "outcome", "declined");
+        this.timedOutCounter = meterRegistry.counter("payment.gateway.result", "outcome", "timeout");
+        this.erroredCounter = meterRegistry.counter("payment.gateway.result", "outcome", "error");
+        this.rejectedCounter = meterRegistry.counter("payment.gateway.rejected");
+    }
+    
+    /**
+     * Starts the charge, or queues it if the gateway is at capacity. Returns false if it was
+     * refused because the queue is full. A payment already being charged is not charged twice.
+     */
+    public boolean submit(ChargeRequest request) {
+        if (!inFlight.add(request.paymentId())) {
+            return true;
+        }
+        if (permits.tryAcquire()) {
+            dispatch(request);
+            return true;
+        }
+        if (waiting.offer(request)) {
+            // A permit may have been released between tryAcquire and offer
+            drain();
+            return true;
+        }
+        inFlight.remove(request.paymentId());
+        rejectedCounter.increment();
+        return false;
+    }
+    
+    public boolean isInFlight(Long paymentId) {
+        return inFlight.contains(paymentId);
+    }
+    
+    private void dispatch(ChargeRequest request) {
+        CompletableFuture<GatewayResult> charge;
+        try {
+            charge = gateway.charge(request);
+        } catch (RuntimeException e) {
+            charge = CompletableFuture.failedFuture(e);
+        }
+        charge.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    try {
+                        if (result != null) {
+                            (result.approved() ? approvedCounter : declinedCounter).increment();
+                            completionWorker.enqueue(result);
+                        } else {
+                            unanswered(request, error);
+                        }
+                    } finally {
+                        inFlight.remove(request.paymentId());
+                        permits.release();
+                        drain();
+                    }
+                });
+    }
+    
+    private void unanswered(ChargeRequest request, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            timedOutCounter.increment();
+            System.err.println("Gateway timed out charging payment " + request.paymentId() + ", left PENDING for recovery");
+        } else {
+            erroredCounter.increment();
+            System.err.println("Gateway error charging payment " + request.paymentId() + ", left PENDING for recovery: "
+                    + cause.getMessage());
+        }
+    }
+    
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            ChargeRequest next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            dispatch(next);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.rental.payment.gateway;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a real provider. Each charge completes after a random latency and is
+ * declined with {@code failure-rate}; with {@code timeout-rate} the answer is lost, which
+ * exercises the caller's timeout. Like a real provider it keys charges by transaction id:
+ * a retry gets the first attempt's outcome instead of a second charge. Completion is
+ * scheduled, so no thread waits per charge.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.provider", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+    
+    private static final int MAX_REMEMBERED = 100_000;
+    
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "payment-gateway-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Recent transaction ids and their outcome, oldest evicted first
+    private final Map<String, GatewayResult> outcomes = Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GatewayResult> eldest) {
+                    return size() > MAX_REMEMBERED;
+                }
+            });
+    
+    @Value("${payment.gateway.simulator.min-latency-ms}")
+    private long minLatencyMillis;
+    
+    @Value("${payment.gateway.simulator.max-latency-ms}")
+    private long maxLatencyMillis;
+    
+    @Value("${payment.gateway.simulator.failure-rate}")
+    private double failureRate;
+    
+    @Value("${payment.gateway.simulator.timeout-rate}")
+    private double timeoutRate;
+    
+    @Override
+    public CompletableFuture<GatewayResult> charge(ChargeRequest request) {
+        CompletableFuture<GatewayResult> result = new CompletableFuture<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        GatewayResult outcome = outcomes.computeIfAbsent(request.transactionId(), transactionId ->
+                random.nextDouble() < failureRate
+                        ? GatewayResult.declined(request.paymentId(), "Declined by simulator")
+                        : GatewayResult.approved(request.paymentId()));
+        if (random.nextDouble() < timeoutRate) {
+            // Charged, but the answer never arrives
+            return result;
+        }
+        long latency = minLatencyMillis + random.nextLong(Math.max(1, maxLatencyMillis - minLatencyMillis + 1));
+        scheduler.schedule(() -> result.complete(outcome), latency, TimeUnit.MILLISECONDS);
+        return result;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
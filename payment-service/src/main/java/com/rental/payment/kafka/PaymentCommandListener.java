@@ -0,0 +1,34 @@
+package com.rental.payment.kafka;
+
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
+import com.rental.events.RentalEvent;
+import com.rental.payment.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Refunds payments that booking-service could not apply because the booking had already
+ * been cancelled, e.g. when its hold expired while the charge was in flight.
+ */
+@Service
+public class PaymentCommandListener {
+    
+    @Autowired
+    private PaymentService paymentService;
+    
+    @KafkaListener(topics = "payment-commands", groupId = "payment-service")
+    public void handlePaymentCommand(RentalEvent event) {
+        if (!(event instanceof PaymentEvent command) || command.type() != EventType.PAYMENT_REFUND_REQUESTED) {
+            return;
+        }
+        try {
+            paymentService.refundOrphanedPayment(command.paymentId());
+        } catch (RuntimeException e) {
+            // Rethrown so the container retries; the refund checks the status, so a retry is harmless
+            System.err.println("Failed to refund payment " + command.paymentId() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -1,32 +1,65 @@
 package com.rental.payment.kafka;
 
+import com.rental.common.outbox.OutboxEvent;
+import com.rental.common.outbox.OutboxEventRepository;
+import com.rental.common.outbox.OutboxRelay;
+import com.rental.events.EventCodec;
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes payment events to the outbox in the caller's transaction; {@link OutboxRelay}
+ * publishes them to Kafka after commit.
+ */
 @Service
+@Transactional(propagation = Propagation.MANDATORY)
 public class PaymentEventProducer {
     
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
     private static final String TOPIC = "payment-events";
     
-    public void publishPaymentCompleted(Long paymentId, Long bookingId) {
-        String message = String.format("{\"event\":\"payment_completed\",\"paymentId\":%d,\"bookingId\":%d}", 
-                paymentId, bookingId);
-        kafkaTemplate.send(TOPIC, message);
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO outbox_events (topic, event_key, payload, created_at) VALUES (?, ?, ?, ?)";
+    
+    public void publishPaymentRefunded(Long paymentId, Long bookingId) {
+        enqueue(new PaymentEvent(EventType.PAYMENT_REFUNDED, paymentId, bookingId));
     }
     
-    public void publishPaymentFailed(Long paymentId, Long bookingId) {
-        String message = String.format("{\"event\":\"payment_failed\",\"paymentId\":%d,\"bookingId\":%d}", 
-                paymentId, bookingId);
-        kafkaTemplate.send(TOPIC, message);
+    /**
+     * Writes the events with a single JDBC batch.
+     */
+    public void publishAll(List<PaymentEvent> paymentEvents) {
+        if (paymentEvents.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, paymentEvents, paymentEvents.size(), (ps, paymentEvent) -> {
+            ps.setString(1, TOPIC);
+            ps.setString(2, String.valueOf(paymentEvent.bookingId()));
+            ps.setBytes(3, EventCodec.encode(paymentEvent));
+            ps.setTimestamp(4, now);
+        });
     }
     
-    public void publishPaymentRefunded(Long paymentId, Long bookingId) {
-        String message = String.format("{\"event\":\"payment_refunded\",\"paymentId\":%d,\"bookingId\":%d}", 
-                paymentId, bookingId);
-        kafkaTemplate.send(TOPIC, message);
+    private void enqueue(PaymentEvent paymentEvent) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(TOPIC);
+        event.setEventKey(String.valueOf(paymentEvent.bookingId()));
+        event.setPayload(EventCodec.encode(paymentEvent));
+        outboxRepository.save(event);
     }
 }
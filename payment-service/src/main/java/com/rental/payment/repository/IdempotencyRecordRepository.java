@@ -0,0 +1,57 @@
+package com.rental.payment.repository;
+
+import com.rental.payment.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    interface StoredRecord {
+        String getFingerprint();
+        boolean isCompleted();
+        int getResponseStatus();
+        String getResponseBody();
+    }
+    
+    // A projection rather than the entity: waiters poll this and must not see a cached instance
+    @Query("SELECT r.fingerprint AS fingerprint, r.completed AS completed, r.responseStatus AS responseStatus, " +
+           "r.responseBody AS responseBody FROM IdempotencyRecord r WHERE r.key = :key")
+    Optional<StoredRecord> findStored(@Param("key") String key);
+    
+    // Inserts the in-flight marker, or takes over a row whose claim or stored response has expired
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, owner, fingerprint, completed, response_status, expires_at) " +
+                   "VALUES (:key, :owner, :fingerprint, false, 0, :expiresAt) " +
+                   "ON CONFLICT (idempotency_key) DO UPDATE SET owner = EXCLUDED.owner, fingerprint = EXCLUDED.fingerprint, " +
+                   "completed = false, response_status = 0, response_body = NULL, expires_at = EXCLUDED.expires_at " +
+                   "WHERE idempotency_keys.expires_at < :now",
+           nativeQuery = true)
+    int claim(@Param("key") String key, @Param("owner") String owner, @Param("fingerprint") String fingerprint,
+              @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.completed = true, r.responseStatus = :status, " +
+           "r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.key = :key AND r.owner = :owner")
+    int complete(@Param("key") String key, @Param("owner") String owner, @Param("status") int status,
+                 @Param("body") String body, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.owner = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,14 @@
+package com.rental.payment.repository;
+
+import com.rental.payment.entity.PaymentSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PaymentSettlementRepository extends JpaRepository<PaymentSettlement, Long> {
+    List<PaymentSettlement> findBySettlementDateBetweenOrderBySettlementDateAscPaymentMethodAscStatusAsc(
+            LocalDate from, LocalDate to);
+}
@@ -0,0 +1,52 @@
+package com.rental.payment.service;
+
+import com.rental.common.idempotency.IdempotencyStore;
+import com.rental.common.idempotency.StoredResponse;
+import com.rental.payment.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency keys in the idempotency_keys table. A claim upserts the row, taking over
+ * one whose claim or stored response has expired; later writes match on the owner.
+ */
+@Component
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+    
+    @Override
+    public boolean claim(String key, String fingerprint, String owner, Duration inFlightTtl) {
+        LocalDateTime now = LocalDateTime.now();
+        return recordRepository.claim(key, owner, fingerprint, now.plus(inFlightTtl), now) == 1;
+    }
+    
+    @Override
+    public StoredResponse find(String key) {
+        return recordRepository.findStored(key)
+                .map(stored -> new StoredResponse(stored.isCompleted(), stored.getFingerprint(),
+                        stored.getResponseStatus(), stored.getResponseBody()))
+                .orElse(null);
+    }
+    
+    @Override
+    public boolean complete(String key, String owner, StoredResponse response, Duration ttl) {
+        return recordRepository.complete(key, owner, response.status(), response.body(),
+                LocalDateTime.now().plus(ttl)) == 1;
+    }
+    
+    @Override
+    public void release(String key, String owner) {
+        recordRepository.release(key, owner);
+    }
+    
+    @Scheduled(fixedDelayString = "PT10M", initialDelayString = "PT1M")
+    public void purgeExpired() {
+        recordRepository.deleteExpired(LocalDateTime.now());
+    }
+}
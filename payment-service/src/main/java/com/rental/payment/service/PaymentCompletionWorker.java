@@ -0,0 +1,98 @@
+package com.rental.payment.service;
+
+import com.rental.events.EventType;
+import com.rental.events.PaymentEvent;
+import com.rental.payment.gateway.GatewayResult;
+import com.rental.payment.kafka.PaymentEventProducer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Applies gateway outcomes in batches: one UPDATE moves every PENDING payment in the batch
+ * to COMPLETED or FAILED, and the matching payment_completed / payment_failed events go to
+ * the outbox in the same transaction. Payments that are no longer PENDING are left alone,
+ * so an outcome delivered twice is applied once.
+ */
+@Service
+public class PaymentCompletionWorker {
+    
+    private static final String COMPLETE_SQL = "UPDATE payments p SET status = t.status " +
+            "FROM unnest(?, ?) AS t(id, status) " +
+            "WHERE p.id = t.id AND p.status = 'PENDING' " +
+            "RETURNING p.id, p.booking_id, p.status";
+    
+    private static final RowMapper<PaymentEvent> EVENT_ROW = (rs, rowNum) -> new PaymentEvent(
+            "COMPLETED".equals(rs.getString("status")) ? EventType.PAYMENT_COMPLETED : EventType.PAYMENT_FAILED,
+            rs.getLong("id"),
+            rs.getLong("booking_id"));
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PaymentEventProducer eventProducer;
+    
+    @Value("${payment.completion.batch-size}")
+    private int batchSize;
+    
+    private final Queue<GatewayResult> results = new ConcurrentLinkedQueue<>();
+    
+    public void enqueue(GatewayResult result) {
+        results.add(result);
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.completion.flush-ms}")
+    public void flush() {
+        List<GatewayResult> batch = new ArrayList<>(batchSize);
+        GatewayResult result;
+        while ((result = results.poll()) != null) {
+            batch.add(result);
+            if (batch.size() == batchSize) {
+                if (!apply(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            apply(batch);
+        }
+    }
+    
+    private boolean apply(List<GatewayResult> batch) {
+        Long[] ids = new Long[batch.size()];
+        String[] statuses = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            ids[i] = batch.get(i).paymentId();
+            statuses[i] = batch.get(i).approved() ? "COMPLETED" : "FAILED";
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PaymentEvent> events = jdbcTemplate.query(COMPLETE_SQL, ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", statuses));
+                }, EVENT_ROW);
+                eventProducer.publishAll(events);
+            });
+            return true;
+        } catch (Exception e) {
+            // Kept for the next flush; nothing of this batch was committed
+            System.err.println("Failed to apply " + batch.size() + " payment outcomes, retrying: " + e.getMessage());
+            results.addAll(batch);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.rental.payment.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.payment.dto.PaymentExportCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams payments as CSV or JSON lines straight from a server-side cursor: Postgres only
+ * uses a cursor inside a transaction and with a fetch size set, and then hands over
+ * {@code payment.export.fetch-size} rows at a time, so memory stays flat however many
+ * rows the export covers.
+ */
+@Service
+public class PaymentExportService {
+    
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    private static final String[] COLUMNS =
+            {"id", "booking_id", "amount", "status", "payment_method", "transaction_id", "created_at"};
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${payment.export.fetch-size}")
+    private int fetchSize;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public PaymentExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Checks the criteria before any output is written, so bad input can still get a 400.
+     */
+    public Format validate(PaymentExportCriteria criteria) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getTo().isBefore(criteria.getFrom())) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        String format = criteria.getFormat() == null ? "csv" : criteria.getFormat();
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+    }
+    
+    public void export(PaymentExportCriteria criteria, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT " + String.join(", ", COLUMNS) + " FROM payments WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (criteria.getFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(criteria.getFrom().atStartOfDay()));
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(criteria.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (criteria.getStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(criteria.getStatus().name());
+        }
+        sql.append(" ORDER BY created_at, id");
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator json = null;
+        RowCallbackHandler rowWriter;
+        if (format == Format.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            rowWriter = csvRows(writer);
+        } else {
+            // One object per line: the root value separator is the newline
+            json = objectMapper.getFactory().createGenerator(writer)
+                    .setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            rowWriter = jsonRows(json);
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, rowWriter));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        if (json != null) {
+            json.flush();
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+    
+    private RowCallbackHandler csvRows(Writer writer) {
+        return rs -> write(() -> {
+            writer.write(String.valueOf(rs.getLong("id")));
+            writer.write(',');
+            writer.write(String.valueOf(rs.getLong("booking_id")));
+            writer.write(',');
+            writer.write(rs.getBigDecimal("amount").toPlainString());
+            writer.write(',');
+            writer.write(rs.getString("status"));
+            writer.write(',');
+            writer.write(csvField(rs.getString("payment_method")));
+            writer.write(',');
+            writer.write(csvField(rs.getString("transaction_id")));
+            writer.write(',');
+            writer.write(rs.getTimestamp("created_at").toLocalDateTime().toString());
+            writer.write('\n');
+        });
+    }
+    
+    private RowCallbackHandler jsonRows(JsonGenerator json) {
+        return rs -> write(() -> {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeNumberField("bookingId", rs.getLong("booking_id"));
+            json.writeNumberField("amount", rs.getBigDecimal("amount"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeStringField("paymentMethod", rs.getString("payment_method"));
+            json.writeStringField("transactionId", rs.getString("transaction_id"));
+            json.writeStringField("createdAt", rs.getTimestamp("created_at").toLocalDateTime().toString());
+            json.writeEndObject();
+        });
+    }
+    
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    private static void write(RowWrite row) throws SQLException {
+        try {
+            row.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private interface RowWrite {
+        void write() throws IOException, SQLException;
+    }
+}
@@ -1,25 +1,57 @@
 package com.rental.payment.service;
 
 import com.rental.payment.entity.Payment;
+import com.rental.payment.gateway.ChargeRequest;
+import com.rental.payment.gateway.PaymentGatewayClient;
 import com.rental.payment.kafka.PaymentEventProducer;
 import com.rental.payment.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class PaymentService {
     
+    // Claims PENDING payments whose charge lapsed; SKIP LOCKED keeps instances from claiming the same rows
+    private static final String CLAIM_STALE_SQL = "UPDATE payments p SET charge_claimed_until = ? " +
+            "WHERE p.id IN (SELECT id FROM payments WHERE status = 'PENDING' " +
+            "AND COALESCE(charge_claimed_until, created_at) < ? ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING p.id, p.transaction_id, p.amount, p.payment_method";
+    
     @Autowired
     private PaymentRepository paymentRepository;
     
     @Autowired
     private PaymentEventProducer eventProducer;
     
+    @Autowired
+    private PaymentGatewayClient gatewayClient;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${payment.recovery.claim-ms}")
+    private long claimMillis;
+    
+    @Value("${payment.recovery.batch-size}")
+    private int recoveryBatchSize;
+    
+    /**
+     * Records the payment as PENDING and hands it to the gateway once that row is committed.
+     * The outcome is applied later by {@link PaymentCompletionWorker}. The row is claimed for
+     * {@code payment.recovery.claim-ms}, so recovery elsewhere leaves the charge alone meanwhile.
+     */
     @Transactional
     public Payment processPayment(Long bookingId, BigDecimal amount, String paymentMethod) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -31,18 +63,51 @@ public class PaymentService {
         payment.setAmount(amount);
         payment.setPaymentMethod(paymentMethod);
         payment.setStatus(Payment.PaymentStatus.PENDING);
+        payment.setChargeClaimedUntil(LocalDateTime.now().plusNanos(claimMillis * 1_000_000));
         
         payment = paymentRepository.save(payment);
         
-        // Auto-success for MVP
-        payment.setStatus(Payment.PaymentStatus.COMPLETED);
-        payment = paymentRepository.save(payment);
-        
-        eventProducer.publishPaymentCompleted(payment.getId(), bookingId);
+        ChargeRequest charge = toCharge(payment);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!gatewayClient.submit(charge)) {
+                    System.err.println("Payment gateway is saturated, payment " + charge.paymentId() + " left for recovery");
+                }
+            }
+        });
         
         return payment;
     }
     
+    // Picks up payments whose charge was refused by a full queue, went unanswered or was lost in a restart.
+    // Resubmits reuse the transaction id, so the provider never charges a payment twice.
+    @Scheduled(fixedDelayString = "${payment.recovery.interval-ms}", initialDelayString = "${payment.recovery.interval-ms}")
+    public void resubmitStalePayments() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ChargeRequest> stale = jdbcTemplate.query(CLAIM_STALE_SQL,
+                    (rs, rowNum) -> new ChargeRequest(rs.getLong("id"), rs.getString("transaction_id"),
+                            rs.getBigDecimal("amount"), rs.getString("payment_method")),
+                    Timestamp.valueOf(now.plusNanos(claimMillis * 1_000_000)), Timestamp.valueOf(now), recoveryBatchSize);
+            int resubmitted = 0;
+            for (ChargeRequest charge : stale) {
+                if (!gatewayClient.isInFlight(charge.paymentId()) && gatewayClient.submit(charge)) {
+                    resubmitted++;
+                }
+            }
+            if (resubmitted > 0) {
+                System.out.println("Resubmitted " + resubmitted + " stale pending payments");
+            }
+        } catch (Exception e) {
+            System.err.println("Pending payment recovery failed: " + e.getMessage());
+        }
+    }
+    
+    private static ChargeRequest toCharge(Payment payment) {
+        return new ChargeRequest(payment.getId(), payment.getTransactionId(), payment.getAmount(), payment.getPaymentMethod());
+    }
+    
     public Optional<Payment> getPayment(Long paymentId) {
         return paymentRepository.findById(paymentId);
     }
@@ -67,4 +132,19 @@ public class PaymentService {
         
         return payment;
     }
+    
+    /**
+     * Refunds a payment whose booking was cancelled before the charge completed. Repeated
+     * requests are harmless: only a COMPLETED payment is refunded.
+     */
+    @Transactional
+    public void refundOrphanedPayment(Long paymentId) {
+        Optional<Payment> payment = paymentRepository.findById(paymentId);
+        if (payment.isEmpty() || payment.get().getStatus() != Payment.PaymentStatus.COMPLETED) {
+            System.out.println("Refund request for payment " + paymentId + " ignored, it is not completed");
+            return;
+        }
+        refundPayment(paymentId);
+        System.out.println("Refunded payment " + paymentId + " for a cancelled booking");
+    }
 }
@@ -0,0 +1,83 @@
+package com.rental.payment.service;
+
+import com.rental.payment.entity.PaymentSettlement;
+import com.rental.payment.repository.PaymentSettlementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps payment_settlements, the daily count and total per payment method and status,
+ * up to date. Payments keep changing status after the day they were created (completion,
+ * refunds), so every run recomputes the last {@code lookback-days} days in one transaction.
+ * Each day is aggregated by the database in one pass over the created_at range, and only
+ * the summary rows cross the wire.
+ */
+@Service
+public class PaymentSettlementService {
+    
+    private static final long SETTLEMENT_LOCK_KEY = 0x736574746C65L;
+    
+    private static final String DELETE_SQL =
+            "DELETE FROM payment_settlements WHERE settlement_date >= ? AND settlement_date <= ?";
+    
+    private static final String INSERT_SQL = "INSERT INTO payment_settlements " +
+            "(settlement_date, payment_method, status, payment_count, total_amount, computed_at) " +
+            "SELECT CAST(created_at AS date), payment_method, status, count(*), sum(amount), now() " +
+            "FROM payments WHERE created_at >= ? AND created_at < ? " +
+            "GROUP BY CAST(created_at AS date), payment_method, status";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PaymentSettlementRepository settlementRepository;
+    
+    @Value("${payment.settlement.lookback-days}")
+    private int lookbackDays;
+    
+    @Scheduled(cron = "${payment.settlement.cron}")
+    public void settleRecentDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            Integer rows = settle(yesterday.minusDays(lookbackDays - 1L), yesterday);
+            if (rows != null) {
+                System.out.println("Settled payments up to " + yesterday + ": " + rows + " summary rows");
+            }
+        } catch (Exception e) {
+            System.err.println("Payment settlement failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Replaces the settlements of [from, to]. Returns the number of summary rows written, or
+     * null if another instance is settling right now.
+     */
+    public Integer settle(LocalDate from, LocalDate to) {
+        return transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, SETTLEMENT_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            jdbcTemplate.update(DELETE_SQL, Date.valueOf(from), Date.valueOf(to));
+            return jdbcTemplate.update(INSERT_SQL,
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        });
+    }
+    
+    public List<PaymentSettlement> getSettlements(LocalDate from, LocalDate to) {
+        return settlementRepository.findBySettlementDateBetweenOrderBySettlementDateAscPaymentMethodAscStatusAsc(from, to);
+    }
+}
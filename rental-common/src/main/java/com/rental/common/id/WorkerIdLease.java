@@ -0,0 +1,123 @@
+package com.rental.common.id;
+
+import com.rental.events.id.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases a Snowflake worker id from the service's database at startup and installs the
+ * shared {@link SnowflakeIdGenerator} with it; startup fails when all ids are taken.
+ * An instance that cannot renew its lease stops handing out ids before the lease can
+ * pass to another instance, and the next holder starts after the highest timestamp the
+ * previous one may have used. Services register it with {@code @Import}.
+ */
+@Component
+public class WorkerIdLease {
+    
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS id_worker_leases (" +
+            "worker_id integer PRIMARY KEY, owner varchar(64) NOT NULL, " +
+            "expires_at timestamptz NOT NULL, issued_up_to bigint NOT NULL)";
+    
+    // The lowest free or expired worker id; no row when another instance claimed it first
+    private static final String CLAIM_SQL = "INSERT INTO id_worker_leases (worker_id, owner, expires_at, issued_up_to) " +
+            "SELECT w, ?, now() + ? * interval '1 second', 0 FROM generate_series(0, ?) AS w " +
+            "WHERE NOT EXISTS (SELECT 1 FROM id_worker_leases l WHERE l.worker_id = w AND l.expires_at > now()) " +
+            "ORDER BY w LIMIT 1 " +
+            "ON CONFLICT (worker_id) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at " +
+            "WHERE id_worker_leases.expires_at <= now() " +
+            "RETURNING worker_id, issued_up_to";
+    
+    private static final String RENEW_SQL = "UPDATE id_worker_leases " +
+            "SET expires_at = now() + ? * interval '1 second', issued_up_to = ? WHERE worker_id = ? AND owner = ?";
+    
+    private static final String RELEASE_SQL = "UPDATE id_worker_leases " +
+            "SET expires_at = now(), issued_up_to = ? WHERE worker_id = ? AND owner = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${id.worker-lease.ttl-seconds}")
+    private long ttlSeconds;
+    
+    private final String owner = UUID.randomUUID().toString();
+    private volatile SnowflakeIdGenerator generator;
+    
+    @PostConstruct
+    public void acquire() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        lease();
+    }
+    
+    @Scheduled(fixedDelayString = "${id.worker-lease.renew-ms}")
+    public void renew() {
+        SnowflakeIdGenerator current = generator;
+        long started = System.currentTimeMillis();
+        try {
+            if (current != null && jdbcTemplate.update(RENEW_SQL, ttlSeconds, issuedUpTo(current, started),
+                    current.workerId(), owner) == 1) {
+                current.validUntil(localExpiry(started));
+                return;
+            }
+            if (current != null) {
+                current.validUntil(0);
+                System.err.println("Lost the lease on id worker " + current.workerId() + ", leasing another");
+            }
+            lease();
+        } catch (Exception e) {
+            // The current lease stays usable until its local expiry; the next renewal retries
+            System.err.println("Could not renew the id worker lease: " + e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void release() {
+        SnowflakeIdGenerator current = generator;
+        if (current == null) {
+            return;
+        }
+        current.validUntil(0);
+        try {
+            jdbcTemplate.update(RELEASE_SQL, Math.max(current.lastTimestampMillis(), System.currentTimeMillis()),
+                    current.workerId(), owner);
+        } catch (Exception e) {
+            System.err.println("Could not release id worker " + current.workerId() + ": " + e.getMessage());
+        }
+    }
+    
+    private void lease() {
+        // Each miss means another instance took the id we picked, so this ends within the id count
+        for (int attempt = 0; attempt <= SnowflakeIdGenerator.MAX_WORKER_ID; attempt++) {
+            long started = System.currentTimeMillis();
+            List<SnowflakeIdGenerator> leased = jdbcTemplate.query(CLAIM_SQL,
+                    (rs, rowNum) -> new SnowflakeIdGenerator(rs.getInt("worker_id"), rs.getLong("issued_up_to")),
+                    owner, ttlSeconds, SnowflakeIdGenerator.MAX_WORKER_ID);
+            if (!leased.isEmpty()) {
+                SnowflakeIdGenerator next = leased.get(0);
+                next.validUntil(localExpiry(started));
+                generator = next;
+                SnowflakeIdGenerator.installShared(next);
+                System.out.println("Leased id worker " + next.workerId());
+                return;
+            }
+        }
+        throw new IllegalStateException("No free id worker: all " + (SnowflakeIdGenerator.MAX_WORKER_ID + 1) + " are leased");
+    }
+    
+    // Ids may be handed out until the local expiry, so a successor must start after it
+    private long issuedUpTo(SnowflakeIdGenerator current, long now) {
+        return Math.max(current.lastTimestampMillis(), now) + ttlSeconds * 1000;
+    }
+    
+    // A quarter of the TTL is kept as margin for clock drift between this host and the database
+    private long localExpiry(long started) {
+        return started + ttlSeconds * 750;
+    }
+}
@@ -0,0 +1,190 @@
+package com.rental.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated Idempotency-Key instead of running the
+ * request again. The key is claimed in the service's {@link IdempotencyStore}, so a
+ * duplicate arriving at another instance waits for the first execution; duplicates on
+ * this instance share the in-flight call directly. Only successful responses are stored,
+ * so a request that failed (e.g. a contended vehicle) can be retried with the same key.
+ * Services register it with {@code @Import} next to their store.
+ */
+public class IdempotencyService {
+    
+    public static final String HEADER = "Idempotency-Key";
+    
+    private static final long POLL_INTERVAL_MS = 25;
+    
+    @Autowired
+    private IdempotencyStore store;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${idempotency.ttl-seconds}")
+    private long ttlSeconds;
+    
+    @Value("${idempotency.in-flight-ttl-seconds}")
+    private long inFlightTtlSeconds;
+    
+    @Value("${idempotency.max-wait-ms}")
+    private long maxWaitMillis;
+    
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter replayedCounter;
+    
+    public IdempotencyService(MeterRegistry meterRegistry) {
+        this.replayedCounter = meterRegistry.counter("idempotency.replayed");
+    }
+    
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = scope + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+        
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return awaitLocal(running, fingerprint);
+        }
+        try {
+            ResponseEntity<?> response = claimAndRun(key, fingerprint, action);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    private ResponseEntity<?> claimAndRun(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        String owner = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (true) {
+            if (store.claim(key, fingerprint, owner, Duration.ofSeconds(inFlightTtlSeconds))) {
+                return run(key, fingerprint, owner, action);
+            }
+            
+            StoredResponse stored = store.find(key);
+            if (stored != null && !stored.fingerprint().equals(fingerprint)) {
+                return keyReused();
+            }
+            if (stored != null && stored.completed()) {
+                replayedCounter.increment();
+                return replay(stored);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return inProgress();
+            }
+            sleep(POLL_INTERVAL_MS);
+        }
+    }
+    
+    private ResponseEntity<?> run(String key, String fingerprint, String owner, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            store.release(key, owner);
+            throw e;
+        }
+        
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            store.release(key, owner);
+            return response;
+        }
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            StoredResponse stored = new StoredResponse(true, fingerprint, response.getStatusCode().value(), body);
+            if (!store.complete(key, owner, stored, Duration.ofSeconds(ttlSeconds))) {
+                System.err.println("Idempotency claim on " + key + " expired before the response was stored");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to store idempotent response for " + key + ": " + e.getMessage());
+            store.release(key, owner);
+        }
+        return response;
+    }
+    
+    private ResponseEntity<?> awaitLocal(InFlight running, String fingerprint) {
+        if (!running.fingerprint().equals(fingerprint)) {
+            return keyReused();
+        }
+        try {
+            ResponseEntity<?> response = running.response().get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            replayedCounter.increment();
+            return response;
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        }
+    }
+    
+    private ResponseEntity<?> replay(StoredResponse stored) {
+        try {
+            return ResponseEntity.status(stored.status())
+                    .header("Idempotent-Replayed", "true")
+                    .body(objectMapper.readTree(stored.body()));
+        } catch (Exception e) {
+            throw new RuntimeException("Stored response could not be read", e);
+        }
+    }
+    
+    private ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("message", "Idempotency-Key was already used for a different request"));
+    }
+    
+    private ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "A request with this Idempotency-Key is still in progress"));
+    }
+    
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Request could not be fingerprinted", e);
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private record InFlight(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
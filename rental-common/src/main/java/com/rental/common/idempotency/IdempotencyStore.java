@@ -0,0 +1,31 @@
+package com.rental.common.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Where claimed Idempotency-Keys and their stored responses live. Every write after
+ * {@link #claim} names the owner that claimed the key and must leave the key alone once
+ * another owner has taken it over, e.g. after the in-flight claim expired.
+ */
+public interface IdempotencyStore {
+    
+    /**
+     * Marks the key as in flight for {@code owner}; false if it is already claimed or completed.
+     */
+    boolean claim(String key, String fingerprint, String owner, Duration inFlightTtl);
+    
+    /**
+     * The in-flight marker or stored response for the key, or null.
+     */
+    StoredResponse find(String key);
+    
+    /**
+     * Replaces the owner's in-flight marker with the response; false if the owner lost the claim.
+     */
+    boolean complete(String key, String owner, StoredResponse response, Duration ttl);
+    
+    /**
+     * Deletes the key if {@code owner} still holds it.
+     */
+    void release(String key, String owner);
+}
@@ -0,0 +1,11 @@
+package com.rental.common.idempotency;
+
+/**
+ * An in-flight marker ({@code completed} false) or the response to replay for a key.
+ */
+public record StoredResponse(boolean completed, String fingerprint, int status, String body) {
+    
+    public static StoredResponse inFlight(String fingerprint) {
+        return new StoredResponse(false, fingerprint, 0, null);
+    }
+}
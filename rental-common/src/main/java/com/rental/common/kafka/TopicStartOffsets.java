@@ -0,0 +1,114 @@
+package com.rental.common.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Where a topic stood when a service loaded in-memory state from its database. Capture it
+ * before the load; the listener that keeps the state current is then assigned every
+ * partition (see {@link #partitions()}) and seeks here, so it replays exactly what the load
+ * may have missed. Such a listener has no consumer group, commits nothing and leaves no
+ * group behind. A partition with no captured offset is replayed from the beginning.
+ */
+public class TopicStartOffsets {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    
+    private final String topic;
+    private final Map<Integer, Long> offsets;
+    
+    private TopicStartOffsets(String topic, Map<Integer, Long> offsets) {
+        this.topic = topic;
+        this.offsets = offsets;
+    }
+    
+    /**
+     * The current end of the topic, for state loaded from the tables whose changes the topic carries.
+     */
+    public static TopicStartOffsets atEnd(String topic, ConsumerFactory<?, ?> consumerFactory, int defaultPartitions) {
+        return capture(topic, consumerFactory, null, defaultPartitions);
+    }
+    
+    /**
+     * What {@code groupId} has committed, for state loaded from a table that group projects the topic into.
+     */
+    public static TopicStartOffsets atCommitted(String topic, String groupId, ConsumerFactory<?, ?> consumerFactory,
+                                                int defaultPartitions) {
+        return capture(topic, consumerFactory, groupId, defaultPartitions);
+    }
+    
+    private static TopicStartOffsets capture(String topic, ConsumerFactory<?, ?> consumerFactory, String groupId,
+                                             int defaultPartitions) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        // Looking the topic up must not auto-create it with the broker's default partition count
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, "false");
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer(groupId, null, "-start-offsets", overrides)) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic, TIMEOUT);
+            if (partitions == null || partitions.isEmpty()) {
+                // Not created yet, so there is nothing to miss
+                IntStream.range(0, defaultPartitions).forEach(partition -> offsets.put(partition, 0L));
+                return new TopicStartOffsets(topic, offsets);
+            }
+            List<TopicPartition> topicPartitions = partitions.stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            if (groupId == null) {
+                consumer.endOffsets(topicPartitions, TIMEOUT)
+                        .forEach((partition, offset) -> offsets.put(partition.partition(), offset));
+            } else {
+                Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(topicPartitions), TIMEOUT);
+                for (TopicPartition partition : topicPartitions) {
+                    OffsetAndMetadata offset = committed.get(partition);
+                    offsets.put(partition.partition(), offset == null ? null : offset.offset());
+                }
+            }
+            System.out.println("Captured start offsets for " + topic + ": " + offsets);
+        } catch (Exception e) {
+            // Replaying everything is slow but correct; starting at the latest offset would lose events
+            System.err.println("Could not capture offsets for " + topic + ", replaying it from the beginning: "
+                    + e.getMessage());
+            offsets.clear();
+            IntStream.range(0, defaultPartitions).forEach(partition -> offsets.put(partition, null));
+        }
+        return new TopicStartOffsets(topic, offsets);
+    }
+    
+    /**
+     * Partition numbers for {@code @TopicPartition(partitions = ...)}.
+     */
+    public String[] partitions() {
+        return offsets.keySet().stream().sorted().map(String::valueOf).toArray(String[]::new);
+    }
+    
+    /**
+     * Call from {@code ConsumerSeekAware.onPartitionsAssigned}.
+     */
+    public void seek(Collection<TopicPartition> assigned, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assigned) {
+            if (!partition.topic().equals(topic)) {
+                continue;
+            }
+            Long offset = offsets.get(partition.partition());
+            if (offset == null) {
+                callback.seekToBeginning(topic, partition.partition());
+            } else {
+                callback.seek(topic, partition.partition(), offset);
+            }
+        }
+    }
+}
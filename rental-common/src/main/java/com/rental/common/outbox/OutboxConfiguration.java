@@ -0,0 +1,16 @@
+package com.rental.common.outbox;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Import from a service's application class to get the outbox table and its relay.
+ * Registering the package this way adds {@link OutboxEvent} and its repository to the
+ * service's own entity and repository scan instead of replacing it.
+ */
+@Configuration
+@AutoConfigurationPackage
+@Import(OutboxRelay.class)
+public class OutboxConfiguration {
+}
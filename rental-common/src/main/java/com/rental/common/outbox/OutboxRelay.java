@@ -0,0 +1,145 @@
+package com.rental.common.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the transactional outbox to Kafka: locks a batch of unpublished rows, sends
+ * them and marks the acknowledged rows in one update. Rows sharing a key are sent one
+ * after another, each only once the previous one was acknowledged, while different keys
+ * go out concurrently. A failed send ends its key's chain, so that row and every later
+ * row for the key stay unpublished and are resent in order on the next pass.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final long RELAY_LOCK_KEY = 0x6F7574626F78L;
+    
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+    
+    @Value("${outbox.relay.send-timeout-ms}")
+    private long sendTimeoutMillis;
+    
+    @Value("${outbox.retention-hours}")
+    private long retentionHours;
+    
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer batchTimer;
+    
+    public OutboxRelay(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("outbox.pending", pending);
+        meterRegistry.gauge("outbox.lag.ms", lagMillis);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to publish and mark one outbox batch")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = batchTimer.record(() -> transactionTemplate.execute(status -> publishBatch()));
+            } while (published >= batchSize);
+            updateLag();
+        } catch (Exception e) {
+            System.err.println("Outbox relay failed: " + e.getMessage());
+        }
+    }
+    
+    private int publishBatch() {
+        if (!outboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            // Another instance is draining
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        // Outbox order within a key is the order consumers must see
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byKey.computeIfAbsent(Objects.toString(event.getEventKey(), ""), key -> new ArrayList<>()).add(event);
+        }
+        
+        Queue<Long> acknowledged = new ConcurrentLinkedQueue<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<?>> chains = new ArrayList<>(byKey.size());
+        for (List<OutboxEvent> events : byKey.values()) {
+            chains.add(sendInOrder(events, acknowledged, stopped));
+        }
+        try {
+            CompletableFuture.allOf(chains.toArray(new CompletableFuture[0])).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Some outbox events were not acknowledged: " + e.getMessage());
+        }
+        // Chains still waiting on an ack send nothing further; their rest is retried next pass
+        stopped.set(true);
+        
+        List<Long> published = new ArrayList<>(acknowledged);
+        if (!published.isEmpty()) {
+            outboxRepository.markPublished(published, LocalDateTime.now());
+        }
+        return published.size() == batch.size() ? batch.size() : 0;
+    }
+    
+    private CompletableFuture<Void> sendInOrder(List<OutboxEvent> events, Queue<Long> acknowledged, AtomicBoolean stopped) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (OutboxEvent event : events) {
+            // Async: the previous ack completes on the producer's I/O thread, which must not send
+            chain = chain.thenComposeAsync(previous -> {
+                if (stopped.get()) {
+                    throw new CancellationException("Outbox batch timed out");
+                }
+                return kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload());
+            }).thenAccept(result -> acknowledged.add(event.getId()));
+        }
+        return chain;
+    }
+    
+    private void updateLag() {
+        pending.set(outboxRepository.countByPublishedAtIsNull());
+        lagMillis.set(outboxRepository.findOldestUnpublished()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+    
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void purgePublished() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+    }
+}
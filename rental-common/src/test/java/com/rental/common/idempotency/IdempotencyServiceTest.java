@@ -0,0 +1,213 @@
+package com.rental.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryStore store = new InMemoryStore();
+    private final AtomicInteger calls = new AtomicInteger();
+    private IdempotencyService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "store", store);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "inFlightTtlSeconds", 30L);
+        ReflectionTestUtils.setField(service, "maxWaitMillis", 300L);
+    }
+    
+    private ResponseEntity<?> created() {
+        int n = calls.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", n));
+    }
+    
+    private String fingerprintOf(Object request) throws Exception {
+        // Same digest the service computes, to stage other instances' claims
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+    
+    @Test
+    void runsEveryTimeWithoutAKey() {
+        service.execute("bookings", null, Map.of("a", 1), this::created);
+        service.execute("bookings", " ", Map.of("a", 1), this::created);
+        
+        assertEquals(2, calls.get());
+        assertTrue(store.entries.isEmpty());
+    }
+    
+    @Test
+    void replaysTheStoredResponseForTheSameRequest() {
+        ResponseEntity<?> first = service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        ResponseEntity<?> second = service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("true", second.getHeaders().getFirst("Idempotent-Replayed"));
+        assertNull(first.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(objectMapper.valueToTree(first.getBody()), second.getBody());
+    }
+    
+    @Test
+    void rejectsTheSameKeyWithADifferentRequest() {
+        service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        
+        ResponseEntity<?> reused = service.execute("bookings", "k1", Map.of("a", 2), this::created);
+        
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+    
+    @Test
+    void keysAreScoped() {
+        service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        service.execute("payments", "k1", Map.of("a", 1), this::created);
+        
+        assertEquals(2, calls.get());
+    }
+    
+    @Test
+    void failedResponsesAreNotStored() {
+        ResponseEntity<?> failed = service.execute("bookings", "k1", Map.of("a", 1),
+                () -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "contended")));
+        ResponseEntity<?> retried = service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        
+        assertEquals(HttpStatus.CONFLICT, failed.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+    
+    @Test
+    void releasesTheKeyWhenTheActionThrows() {
+        assertThrows(IllegalStateException.class, () -> service.execute("bookings", "k1", Map.of("a", 1), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        
+        assertTrue(store.entries.isEmpty());
+        assertEquals(HttpStatus.CREATED, service.execute("bookings", "k1", Map.of("a", 1), this::created).getStatusCode());
+    }
+    
+    @Test
+    void answersConflictWhileAnotherInstanceHoldsTheKey() throws Exception {
+        store.claim("bookings:k1", fingerprintOf(Map.of("a", 1)), "other-instance", Duration.ofSeconds(30));
+        
+        ResponseEntity<?> response = service.execute("bookings", "k1", Map.of("a", 1), this::created);
+        
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, calls.get());
+        assertEquals("other-instance", store.entries.get("bookings:k1").owner());
+    }
+    
+    @Test
+    void replaysWhatAnotherInstanceCompletesWhileWaiting() throws Exception {
+        String fingerprint = fingerprintOf(Map.of("a", 1));
+        store.claim("bookings:k1", fingerprint, "other-instance", Duration.ofSeconds(30));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                Thread.sleep(50);
+                return store.complete("bookings:k1", "other-instance",
+                        new StoredResponse(true, fingerprint, 201, "{\"id\":7}"), Duration.ofHours(1));
+            });
+            
+            ResponseEntity<?> response = service.execute("bookings", "k1", Map.of("a", 1), this::created);
+            
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertEquals(objectMapper.readTree("{\"id\":7}"), response.getBody());
+            assertEquals(0, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void concurrentDuplicatesOnOneInstanceShareTheCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> service.execute("bookings", "k1", Map.of("a", 1), () -> {
+                started.countDown();
+                await(finish);
+                return created();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<?>> second = executor.submit(() ->
+                    service.execute("bookings", "k1", Map.of("a", 1), this::created));
+            Thread.sleep(50);
+            finish.countDown();
+            
+            assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertEquals(HttpStatus.CREATED, second.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Follows the IdempotencyStore contract; expiry is not modelled
+    private static final class InMemoryStore implements IdempotencyStore {
+        
+        private record Entry(String owner, StoredResponse response) {
+        }
+        
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        
+        @Override
+        public boolean claim(String key, String fingerprint, String owner, Duration inFlightTtl) {
+            return entries.putIfAbsent(key, new Entry(owner, StoredResponse.inFlight(fingerprint))) == null;
+        }
+        
+        @Override
+        public StoredResponse find(String key) {
+            Entry entry = entries.get(key);
+            return entry == null ? null : entry.response();
+        }
+        
+        @Override
+        public boolean complete(String key, String owner, StoredResponse response, Duration ttl) {
+            Entry current = entries.get(key);
+            return current != null && current.owner().equals(owner)
+                    && entries.replace(key, current, new Entry(owner, response));
+        }
+        
+        @Override
+        public void release(String key, String owner) {
+            Entry current = entries.get(key);
+            if (current != null && current.owner().equals(owner)) {
+                entries.remove(key, current);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.rental.events.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.events.BookingEvent;
+import com.rental.events.EventType;
+import com.rental.events.RentalEvent;
+import com.rental.events.kafka.RentalEventDeserializer;
+import com.rental.events.kafka.RentalEventSerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the String.format + readTree path the services used for booking events
+ * with the binary codec, for both the producer and the consumer side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEncodingBenchmark {
+    
+    private static final String TOPIC = "booking-events";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringSerializer stringSerializer = new StringSerializer();
+    private final StringDeserializer stringDeserializer = new StringDeserializer();
+    private final RentalEventSerializer eventSerializer = new RentalEventSerializer();
+    private final RentalEventDeserializer eventDeserializer = new RentalEventDeserializer();
+    
+    private BookingEvent event;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+    
+    @Setup
+    public void setUp() {
+        event = new BookingEvent(EventType.BOOKING_CREATED, 184_467L, 3_121L, 90_412L,
+                LocalDate.of(2026, 7, 14), LocalDate.of(2026, 7, 21), "PENDING");
+        jsonPayload = stringSerializer.serialize(TOPIC, toJson(event));
+        binaryPayload = eventSerializer.serialize(TOPIC, event);
+        System.out.printf("%npayload bytes: json=%d binary=%d%n", jsonPayload.length, binaryPayload.length);
+    }
+    
+    @Benchmark
+    public byte[] encodeJson() {
+        return stringSerializer.serialize(TOPIC, toJson(event));
+    }
+    
+    @Benchmark
+    public byte[] encodeBinary() {
+        return eventSerializer.serialize(TOPIC, event);
+    }
+    
+    @Benchmark
+    public BookingEvent decodeJson() throws Exception {
+        JsonNode node = objectMapper.readTree(stringDeserializer.deserialize(TOPIC, jsonPayload));
+        String name = node.get("event").asText();
+        EventType type = EventType.BOOKING_CREATED.getEventName().equals(name)
+                ? EventType.BOOKING_CREATED : EventType.BOOKING_CONFIRMED;
+        return new BookingEvent(type,
+                node.get("bookingId").asLong(),
+                node.get("vehicleId").asLong(),
+                node.get("userId").asLong(),
+                LocalDate.parse(node.get("startDate").asText()),
+                LocalDate.parse(node.get("endDate").asText()),
+                node.get("status").asText());
+    }
+    
+    @Benchmark
+    public RentalEvent decodeBinary() {
+        return eventDeserializer.deserialize(TOPIC, binaryPayload);
+    }
+    
+    // Same format string the booking producer used before the shared codec
+    private static String toJson(BookingEvent event) {
+        return String.format("{\"event\":\"%s\",\"bookingId\":%d,\"vehicleId\":%d,\"userId\":%d," +
+                        "\"startDate\":\"%s\",\"endDate\":\"%s\",\"status\":\"%s\"}",
+                event.type().getEventName(), event.bookingId(), event.vehicleId(), event.userId(),
+                event.startDate(), event.endDate(), event.status());
+    }
+}
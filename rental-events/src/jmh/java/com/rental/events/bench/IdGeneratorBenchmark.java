@@ -0,0 +1,49 @@
+package com.rental.events.bench;
+
+import com.rental.events.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the random-UUID transaction id payments used with the time-ordered generator,
+ * single-threaded and with four threads sharing one generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+    
+    @Benchmark
+    public String uuidTransactionId() {
+        return "TXN-" + UUID.randomUUID();
+    }
+    
+    @Benchmark
+    public long snowflakeId() {
+        return generator.nextId();
+    }
+    
+    @Benchmark
+    public String snowflakeTransactionId() {
+        return "TXN-" + generator.nextKey();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public String uuidTransactionIdContended() {
+        return "TXN-" + UUID.randomUUID();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public long snowflakeIdContended() {
+        return generator.nextId();
+    }
+}
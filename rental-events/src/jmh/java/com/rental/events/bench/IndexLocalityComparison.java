@@ -0,0 +1,110 @@
+package com.rental.events.bench;
+
+import com.rental.events.id.SnowflakeIdGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Inserts the same number of rows keyed by random-UUID and by time-ordered transaction ids
+ * into two tables with a unique index, then compares insert rate and the resulting index:
+ * size, leaf density and leaf fragmentation (from pgstattuple, when it can be installed).
+ * Random keys land on arbitrary leaf pages and split them half full; ordered keys append to
+ * the rightmost leaf. Needs a Postgres the user may create tables in:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.rental.events.bench.IndexLocalityComparison \
+ *      [url=jdbc:postgresql://localhost:5432/payment_db] [user=postgres] [password=postgres] [rows=1000000]
+ * </pre>
+ */
+public class IndexLocalityComparison {
+    
+    private static final int BATCH_SIZE = 1_000;
+    
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/payment_db";
+        String user = args.length > 1 ? args[1] : "postgres";
+        String password = args.length > 2 ? args[2] : "postgres";
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            boolean pgstattuple = installPgstattuple(connection);
+            System.out.printf("%d rows per key style%n", rows);
+            System.out.printf("%-12s %-12s %-12s %-14s %s%n",
+                    "keys", "rows/s", "index MB", "leaf density", "leaf fragmentation");
+            run(connection, "random", rows, () -> "TXN-" + UUID.randomUUID(), pgstattuple);
+            run(connection, "ordered", rows, () -> "TXN-" + generator.nextKey(), pgstattuple);
+        }
+    }
+    
+    private static void run(Connection connection, String label, int rows, Supplier<String> keys,
+                            boolean pgstattuple) throws Exception {
+        String table = "index_locality_" + label;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (transaction_id varchar(255) NOT NULL, "
+                    + "CONSTRAINT " + table + "_key UNIQUE (transaction_id))");
+        }
+        
+        long started = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (transaction_id) VALUES (?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setString(1, keys.get());
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0 || i == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        
+        double indexMegabytes = queryDouble(connection,
+                "SELECT pg_relation_size('" + table + "_key') / 1048576.0");
+        String density = "n/a";
+        String fragmentation = "n/a";
+        if (pgstattuple) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT avg_leaf_density, leaf_fragmentation FROM pgstatindex('" + table + "_key')")) {
+                rs.next();
+                density = String.format("%.1f%%", rs.getDouble(1));
+                fragmentation = String.format("%.1f%%", rs.getDouble(2));
+            }
+        }
+        System.out.printf("%-12s %-12.0f %-12.1f %-14s %s%n",
+                label, rows * 1000.0 / elapsedMillis, indexMegabytes, density, fragmentation);
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+    }
+    
+    private static boolean installPgstattuple(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            return true;
+        } catch (Exception e) {
+            System.out.println("pgstattuple unavailable, reporting index size only: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static double queryDouble(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getDouble(1);
+        }
+    }
+}
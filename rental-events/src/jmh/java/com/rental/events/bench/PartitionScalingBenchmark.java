@@ -0,0 +1,138 @@
+package com.rental.events.bench;
+
+import com.rental.events.BookingEvent;
+import com.rental.events.EventType;
+import com.rental.events.RentalEvent;
+import com.rental.events.kafka.RentalEventDeserializer;
+import com.rental.events.kafka.RentalEventSerializer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how consumption of keyed booking events scales with partitions, one consumer
+ * thread per partition, and checks that each booking's events arrive in order.
+ * Needs a running broker:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.rental.events.bench.PartitionScalingBenchmark \
+ *      [bootstrap=localhost:9092] [events=20000] [bookings=2000] [work-micros=500]
+ * </pre>
+ *
+ * work-micros stands in for the per-record database write the real listeners do.
+ */
+public class PartitionScalingBenchmark {
+    
+    private static final int[] PARTITION_COUNTS = {1, 3, 6, 12};
+    
+    public static void main(String[] args) throws Exception {
+        String bootstrap = args.length > 0 ? args[0] : "localhost:9092";
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int bookings = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        long workMicros = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        
+        System.out.printf("%d events over %d bookings, %d us work per record%n", events, bookings, workMicros);
+        System.out.printf("%-12s %-14s %-12s %s%n", "partitions", "events/s", "elapsed ms", "order violations");
+        
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap))) {
+            for (int partitions : PARTITION_COUNTS) {
+                String topic = "partition-scaling-" + partitions + "-" + UUID.randomUUID();
+                admin.createTopics(List.of(new NewTopic(topic, partitions, (short) 1))).all().get();
+                try {
+                    produce(bootstrap, topic, events, bookings);
+                    run(bootstrap, topic, partitions, events, workMicros);
+                } finally {
+                    admin.deleteTopics(List.of(topic)).all().get();
+                }
+            }
+        }
+    }
+    
+    // userId carries a per-booking sequence number so consumers can check ordering
+    private static void produce(String bootstrap, String topic, int events, int bookings) {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        try (KafkaProducer<String, RentalEvent> producer =
+                     new KafkaProducer<>(props, new StringSerializer(), new RentalEventSerializer())) {
+            long[] sequence = new long[bookings];
+            LocalDate start = LocalDate.now();
+            for (int i = 0; i < events; i++) {
+                long bookingId = i % bookings;
+                BookingEvent event = new BookingEvent(EventType.BOOKING_CONFIRMED, bookingId, bookingId % 97,
+                        sequence[(int) bookingId]++, start, start.plusDays(3), "CONFIRMED");
+                producer.send(new ProducerRecord<>(topic, String.valueOf(bookingId), event));
+            }
+            producer.flush();
+        }
+    }
+    
+    private static void run(String bootstrap, String topic, int threads, int events, long workMicros)
+            throws InterruptedException {
+        String group = "partition-scaling-" + UUID.randomUUID();
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        
+        List<Thread> workers = new ArrayList<>(threads);
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> consume(bootstrap, topic, group, events, workMicros, consumed, violations));
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        
+        System.out.printf("%-12d %-14.0f %-12d %d%n",
+                threads, consumed.get() * 1000.0 / Math.max(1, elapsedMillis), elapsedMillis, violations.get());
+    }
+    
+    private static void consume(String bootstrap, String topic, String group, int events, long workMicros,
+                                AtomicLong consumed, AtomicLong violations) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        
+        // A key only ever lives on one partition, so one thread sees all of a booking's events
+        Map<Long, Long> lastSequence = new HashMap<>();
+        try (KafkaConsumer<String, RentalEvent> consumer =
+                     new KafkaConsumer<>(props, new StringDeserializer(), new RentalEventDeserializer())) {
+            consumer.subscribe(Set.of(topic));
+            while (consumed.get() < events) {
+                for (ConsumerRecord<String, RentalEvent> record : consumer.poll(Duration.ofMillis(100))) {
+                    BookingEvent event = (BookingEvent) record.value();
+                    Long previous = lastSequence.put(event.bookingId(), event.userId());
+                    if (previous != null && previous >= event.userId()) {
+                        violations.incrementAndGet();
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(workMicros));
+                    consumed.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rental.events;
+
+import java.time.LocalDate;
+
+/**
+ * A booking state change. Carries the full booking so consumers can project it
+ * without calling back into booking-service.
+ */
+public record BookingEvent(EventType type,
+                           Long bookingId,
+                           Long vehicleId,
+                           Long userId,
+                           LocalDate startDate,
+                           LocalDate endDate,
+                           String status) implements RentalEvent {
+    
+    public BookingEvent {
+        if (type == null || !type.isBookingEvent()) {
+            throw new IllegalArgumentException("Not a booking event type: " + type);
+        }
+    }
+}
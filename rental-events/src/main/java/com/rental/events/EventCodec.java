@@ -0,0 +1,181 @@
+package com.rental.events;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding for {@link RentalEvent}s.
+ *
+ * <pre>
+ * byte    format version (currently 1)
+ * byte    {@link EventType} code
+ * byte    presence mask, one bit per field in record order
+ * ...     present fields: ids as unsigned varints, dates as zig-zag varint epoch days,
+ *         strings as varint length + UTF-8
+ * </pre>
+ *
+ * New fields may only be appended with a new presence bit; decoders ignore bits and
+ * trailing bytes they do not know. Any other layout change needs a new format version.
+ */
+public final class EventCodec {
+    
+    public static final int FORMAT_VERSION = 1;
+    
+    private EventCodec() {
+    }
+    
+    public static byte[] encode(RentalEvent event) {
+        Writer out = new Writer();
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(event.type().getCode());
+        if (event instanceof BookingEvent booking) {
+            out.writeByte(mask(booking.bookingId(), booking.vehicleId(), booking.userId(),
+                    booking.startDate(), booking.endDate(), booking.status()));
+            out.writeId(booking.bookingId());
+            out.writeId(booking.vehicleId());
+            out.writeId(booking.userId());
+            out.writeDate(booking.startDate());
+            out.writeDate(booking.endDate());
+            out.writeString(booking.status());
+        } else if (event instanceof PaymentEvent payment) {
+            out.writeByte(mask(payment.paymentId(), payment.bookingId()));
+            out.writeId(payment.paymentId());
+            out.writeId(payment.bookingId());
+        }
+        return out.toByteArray();
+    }
+    
+    public static RentalEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported event format version: " + version);
+        }
+        EventType type = EventType.fromCode(in.readByte());
+        int mask = in.readByte();
+        if (type.isBookingEvent()) {
+            return new BookingEvent(type,
+                    (mask & 1) != 0 ? in.readId() : null,
+                    (mask & 2) != 0 ? in.readId() : null,
+                    (mask & 4) != 0 ? in.readId() : null,
+                    (mask & 8) != 0 ? in.readDate() : null,
+                    (mask & 16) != 0 ? in.readDate() : null,
+                    (mask & 32) != 0 ? in.readString() : null);
+        }
+        return new PaymentEvent(type,
+                (mask & 1) != 0 ? in.readId() : null,
+                (mask & 2) != 0 ? in.readId() : null);
+    }
+    
+    private static int mask(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+    
+    private static final class Writer {
+        
+        private byte[] buf = new byte[48];
+        private int pos;
+        
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+        
+        void writeId(Long value) {
+            if (value != null) {
+                writeVarLong(value);
+            }
+        }
+        
+        void writeDate(LocalDate value) {
+            if (value != null) {
+                long day = value.toEpochDay();
+                writeVarLong((day << 1) ^ (day >> 63));
+            }
+        }
+        
+        void writeString(String value) {
+            if (value != null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, buf, pos, bytes.length);
+                pos += bytes.length;
+            }
+        }
+        
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+        
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+        
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+    
+    private static final class Reader {
+        
+        private final byte[] buf;
+        private int pos;
+        
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+        
+        int readByte() {
+            if (pos >= buf.length) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            return buf[pos++] & 0xFF;
+        }
+        
+        long readId() {
+            return readVarLong();
+        }
+        
+        LocalDate readDate() {
+            long zigzag = readVarLong();
+            return LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+        
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in event payload");
+        }
+    }
+}
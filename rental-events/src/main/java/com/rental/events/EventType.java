@@ -0,0 +1,58 @@
+package com.rental.events;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every event published on booking-events, payment-events and payment-commands. The code
+ * is the on-the-wire identifier and must never be reused once assigned.
+ */
+public enum EventType {
+    
+    BOOKING_CREATED(1, "booking_created"),
+    BOOKING_CONFIRMED(2, "booking_confirmed"),
+    BOOKING_CANCELLED(3, "booking_cancelled"),
+    
+    PAYMENT_COMPLETED(16, "payment_completed"),
+    PAYMENT_FAILED(17, "payment_failed"),
+    PAYMENT_REFUNDED(18, "payment_refunded"),
+    // Sent by booking-service on payment-commands when a payment completes for a booking it already cancelled
+    PAYMENT_REFUND_REQUESTED(19, "payment_refund_requested");
+    
+    private static final Map<Integer, EventType> BY_CODE = new HashMap<>();
+    
+    static {
+        for (EventType type : values()) {
+            BY_CODE.put(type.code, type);
+        }
+    }
+    
+    private final int code;
+    private final String eventName;
+    
+    EventType(int code, String eventName) {
+        this.code = code;
+        this.eventName = eventName;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    /** The name the services used in their JSON payloads, still used for notifications. */
+    public String getEventName() {
+        return eventName;
+    }
+    
+    public boolean isBookingEvent() {
+        return code < 16;
+    }
+    
+    public static EventType fromCode(int code) {
+        EventType type = BY_CODE.get(code);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown event type code: " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,15 @@
+package com.rental.events;
+
+/**
+ * A payment state change for a booking.
+ */
+public record PaymentEvent(EventType type,
+                           Long paymentId,
+                           Long bookingId) implements RentalEvent {
+    
+    public PaymentEvent {
+        if (type == null || type.isBookingEvent()) {
+            throw new IllegalArgumentException("Not a payment event type: " + type);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rental.events;
+
+/**
+ * Common shape of everything published to the rental Kafka topics.
+ */
+public sealed interface RentalEvent permits BookingEvent, PaymentEvent {
+    
+    EventType type();
+    
+    Long bookingId();
+}
@@ -0,0 +1,127 @@
+package com.rental.events.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 64-bit ids that stay below 2^53, so they survive a round trip through
+ * JavaScript numbers in the frontend: 41 bits of milliseconds since 2024-01-01, 5 bits of
+ * worker id and 7 bits of sequence (128 ids per millisecond per worker).
+ * <p>
+ * Lock-free: the last (millisecond, sequence) pair is one {@link AtomicLong} advanced by
+ * CAS. When a millisecond's sequence runs out, or the clock steps back, the generator keeps
+ * counting from where it was instead of waiting, so ids never repeat or go backwards.
+ * <p>
+ * Every process that writes the same tables needs its own worker id. Services lease one at
+ * startup and install the generator with {@link #installShared}; until then, and after the
+ * lease lapses, {@link #shared()} refuses to hand out ids rather than risk a duplicate.
+ */
+public final class SnowflakeIdGenerator {
+    
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    
+    private static final int SEQUENCE_BITS = 7;
+    private static final int WORKER_BITS = 5;
+    private static final int TIMESTAMP_BITS = 41;
+    
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+    
+    private static final long MAX_STATE = (1L << (TIMESTAMP_BITS + SEQUENCE_BITS)) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    // Crockford base32: no I, L, O or U, and its order matches the numeric order
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int BASE32_LENGTH = 11;
+    
+    private static volatile SnowflakeIdGenerator shared;
+    
+    private final int workerId;
+    private final long workerBits;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+    private volatile long validUntilMillis = Long.MAX_VALUE;
+    
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, EPOCH_MILLIS);
+    }
+    
+    /**
+     * A generator whose ids all carry timestamps after {@code notBeforeMillis}, for taking over
+     * a worker id whose previous holder may have run ahead of the clock.
+     */
+    public SnowflakeIdGenerator(int workerId, long notBeforeMillis) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerId = workerId;
+        this.workerBits = (long) workerId << SEQUENCE_BITS;
+        this.state.set((Math.max(notBeforeMillis, EPOCH_MILLIS) - EPOCH_MILLIS) << SEQUENCE_BITS | SEQUENCE_MASK);
+    }
+    
+    /**
+     * The process-wide generator, used by {@link SnowflakeId} entities.
+     */
+    public static SnowflakeIdGenerator shared() {
+        SnowflakeIdGenerator generator = shared;
+        if (generator == null) {
+            throw new IllegalStateException("No worker id has been leased for this process");
+        }
+        return generator;
+    }
+    
+    public static void installShared(SnowflakeIdGenerator generator) {
+        shared = generator;
+    }
+    
+    public int workerId() {
+        return workerId;
+    }
+    
+    /**
+     * Stops handing out ids once the clock passes {@code epochMillis}, i.e. when the worker id may be reassigned.
+     */
+    public void validUntil(long epochMillis) {
+        validUntilMillis = epochMillis;
+    }
+    
+    /**
+     * Timestamp of the latest id handed out, which may be ahead of the clock after a burst.
+     */
+    public long lastTimestampMillis() {
+        return EPOCH_MILLIS + (state.get() >>> SEQUENCE_BITS);
+    }
+    
+    public long nextId() {
+        long now = System.currentTimeMillis();
+        if (now > validUntilMillis) {
+            throw new IllegalStateException("Lease on worker id " + workerId + " has expired");
+        }
+        long floor = (now - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = state.accumulateAndGet(floor, (previous, current) -> Math.max(previous + 1, current));
+        if (next > MAX_STATE) {
+            throw new IllegalStateException("Id space exhausted");
+        }
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (WORKER_BITS + SEQUENCE_BITS)) | workerBits | (next & SEQUENCE_MASK);
+    }
+    
+    /**
+     * A fixed-width base32 form of {@link #nextId()}; later ids sort after earlier ones as strings too.
+     */
+    public String nextKey() {
+        return encode(nextId());
+    }
+    
+    public static String encode(long id) {
+        char[] chars = new char[BASE32_LENGTH];
+        for (int i = BASE32_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+    
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli(EPOCH_MILLIS + (id >>> (WORKER_BITS + SEQUENCE_BITS)));
+    }
+}
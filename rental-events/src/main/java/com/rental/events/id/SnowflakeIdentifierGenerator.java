@@ -0,0 +1,15 @@
+package com.rental.events.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate side of {@link SnowflakeId}.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return SnowflakeIdGenerator.shared().nextId();
+    }
+}
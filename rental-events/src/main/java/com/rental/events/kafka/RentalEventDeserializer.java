@@ -0,0 +1,26 @@
+package com.rental.events.kafka;
+
+import com.rental.events.EventCodec;
+import com.rental.events.RentalEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Decodes booking-events and payment-events records. Wrap it in Spring's
+ * ErrorHandlingDeserializer so a record it cannot read is skipped instead of
+ * blocking the partition.
+ */
+public class RentalEventDeserializer implements Deserializer<RentalEvent> {
+    
+    @Override
+    public RentalEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventCodec.decode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Unreadable event on " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.rental.events.kafka;
+
+import com.rental.events.EventCodec;
+import com.rental.events.RentalEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class RentalEventSerializer implements Serializer<RentalEvent> {
+    
+    @Override
+    public byte[] serialize(String topic, RentalEvent event) {
+        return event == null ? null : EventCodec.encode(event);
+    }
+}
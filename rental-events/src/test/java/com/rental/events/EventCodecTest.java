@@ -0,0 +1,88 @@
+package com.rental.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+    
+    @Test
+    void bookingEventRoundTrips() {
+        BookingEvent event = new BookingEvent(EventType.BOOKING_CREATED, 7_312_845_116_817_408L, 42L, 9L,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 5), "PENDING");
+        
+        assertEquals(event, EventCodec.decode(EventCodec.encode(event)));
+    }
+    
+    @Test
+    void paymentEventRoundTrips() {
+        PaymentEvent event = new PaymentEvent(EventType.PAYMENT_REFUND_REQUESTED, 1L << 52, 12L);
+        
+        assertEquals(event, EventCodec.decode(EventCodec.encode(event)));
+    }
+    
+    @Test
+    void missingFieldsStayNull() {
+        BookingEvent booking = new BookingEvent(EventType.BOOKING_CANCELLED, 5L, null, null, null, null, null);
+        PaymentEvent payment = new PaymentEvent(EventType.PAYMENT_FAILED, null, 3L);
+        
+        assertEquals(booking, EventCodec.decode(EventCodec.encode(booking)));
+        assertEquals(payment, EventCodec.decode(EventCodec.encode(payment)));
+    }
+    
+    @Test
+    void extremeValuesRoundTrip() {
+        BookingEvent event = new BookingEvent(EventType.BOOKING_CONFIRMED, Long.MAX_VALUE, 0L, -1L,
+                LocalDate.of(1969, 12, 31), LocalDate.MAX, "bestätigt ✓");
+        
+        assertEquals(event, EventCodec.decode(EventCodec.encode(event)));
+    }
+    
+    @Test
+    void headerCarriesVersionTypeAndPresenceMask() {
+        byte[] data = EventCodec.encode(new PaymentEvent(EventType.PAYMENT_COMPLETED, 1L, 2L));
+        
+        assertArrayEquals(new byte[]{EventCodec.FORMAT_VERSION, 16, 0b11, 1, 2}, data);
+    }
+    
+    @Test
+    void unknownPresenceBitsAndTrailingBytesAreIgnored() {
+        PaymentEvent event = new PaymentEvent(EventType.PAYMENT_COMPLETED, 1L, 2L);
+        byte[] data = EventCodec.encode(event);
+        byte[] extended = Arrays.copyOf(data, data.length + 1);
+        extended[2] |= 0b100;
+        extended[data.length] = 99;
+        
+        assertEquals(event, EventCodec.decode(extended));
+    }
+    
+    @Test
+    void rejectsUnsupportedVersion() {
+        byte[] data = EventCodec.encode(new PaymentEvent(EventType.PAYMENT_COMPLETED, 1L, 2L));
+        data[0] = 2;
+        
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(data));
+    }
+    
+    @Test
+    void rejectsUnknownTypeCode() {
+        byte[] data = {EventCodec.FORMAT_VERSION, 99, 0};
+        
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(data));
+    }
+    
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] data = EventCodec.encode(new BookingEvent(EventType.BOOKING_CREATED, 1L, 2L, 3L,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 2), "PENDING"));
+        
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(truncated),
+                    "decoding the first " + length + " bytes");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.rental.events.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+    
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+    
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(seen.add(ids[i]), "duplicate id " + ids[i]);
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "ids went backwards within a thread");
+                    }
+                }
+            }
+            assertEquals(threads * perThread, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void idsStayBelowTwoToTheFiftyThird() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID);
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > 0 && id <= MAX_SAFE_INTEGER);
+        }
+        // The last millisecond the 41-bit timestamp can hold, with the highest worker and sequence
+        long horizon = SnowflakeIdGenerator.EPOCH_MILLIS + (1L << 41) - 2;
+        long last = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID, horizon).nextId();
+        assertTrue(last <= MAX_SAFE_INTEGER);
+    }
+    
+    @Test
+    void differentWorkersNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(0);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(1);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(seen.add(first.nextId()));
+            assertTrue(seen.add(second.nextId()));
+        }
+    }
+    
+    @Test
+    void successorStartsAfterThePreviousHoldersTimestamps() {
+        long notBefore = System.currentTimeMillis() + 60_000;
+        long id = new SnowflakeIdGenerator(3, notBefore).nextId();
+        assertTrue(SnowflakeIdGenerator.timestampOf(id).toEpochMilli() > notBefore);
+    }
+    
+    @Test
+    void refusesIdsOnceTheLeaseHasExpired() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(2);
+        generator.nextId();
+        generator.validUntil(0);
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+    
+    @Test
+    void keysSortLikeIds() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(4);
+        long earlier = generator.nextId();
+        long later = generator.nextId();
+        assertTrue(SnowflakeIdGenerator.encode(earlier).compareTo(SnowflakeIdGenerator.encode(later)) < 0);
+        assertEquals(11, SnowflakeIdGenerator.encode(later).length());
+    }
+    
+    @Test
+    void rejectsWorkerIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+    }
+}
@@ -1,7 +1,7 @@
 package com.rental.websocket.kafka;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rental.events.BookingEvent;
+import com.rental.events.PaymentEvent;
 import com.rental.websocket.service.WebSocketService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -13,29 +13,26 @@ public class BookingEventListener {
     @Autowired
     private WebSocketService webSocketService;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     @KafkaListener(topics = "booking-events", groupId = "websocket-service")
-    public void handleBookingEvent(String message) {
+    public void handleBookingEvent(BookingEvent event) {
         try {
-            JsonNode event = objectMapper.readTree(message);
-            String eventType = event.get("event").asText();
-            Long bookingId = event.get("bookingId").asLong();
+            Long bookingId = event.bookingId();
             
             String status = "";
             String type = "booking_status_update";
             
-            switch (eventType) {
-                case "booking_created":
+            switch (event.type()) {
+                case BOOKING_CREATED:
                     status = "PENDING";
                     break;
-                case "booking_confirmed":
+                case BOOKING_CONFIRMED:
                     status = "CONFIRMED";
                     break;
-                case "booking_cancelled":
+                case BOOKING_CANCELLED:
                     status = "CANCELLED";
                     break;
+                default:
+                    break;
             }
             
             if (!status.isEmpty()) {
@@ -47,26 +44,26 @@ public class BookingEventListener {
     }
     
     @KafkaListener(topics = "payment-events", groupId = "websocket-service")
-    public void handlePaymentEvent(String message) {
+    public void handlePaymentEvent(PaymentEvent event) {
         try {
-            JsonNode event = objectMapper.readTree(message);
-            String eventType = event.get("event").asText();
-            Long paymentId = event.get("paymentId").asLong();
-            Long bookingId = event.get("bookingId").asLong();
+            Long paymentId = event.paymentId();
+            Long bookingId = event.bookingId();
             
             String status = "";
             String type = "payment_status_update";
             
-            switch (eventType) {
-                case "payment_completed":
+            switch (event.type()) {
+                case PAYMENT_COMPLETED:
                     status = "COMPLETED";
                     break;
-                case "payment_failed":
+                case PAYMENT_FAILED:
                     status = "FAILED";
                     break;
-                case "payment_refunded":
+                case PAYMENT_REFUNDED:
                     status = "REFUNDED";
                     break;
+                default:
+                    break;
             }
             
             if (!status.isEmpty()) {
@@ -2,6 +2,7 @@ package com.rental.websocket.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -9,10 +10,15 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class SessionManager {
     
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+    
     private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
     
+    // Kafka listeners broadcast from several threads; the decorator serialises sends per session
     public void addSession(WebSocketSession session) {
-        sessions.put(session.getId(), session);
+        sessions.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT));
     }
     
     public void removeSession(String sessionId) {